@@ -0,0 +1,35 @@
+package spacegame.bench;
+
+import spacegame.GamePanel;
+import spacegame.GameRandom;
+import spacegame.GameWorld;
+import spacegame.InputManager;
+import spacegame.Obstacle;
+
+// Shared setup: worlds that are already in play and hold a given number of obstacles
+final class BenchWorlds {
+
+    private BenchWorlds() {}
+
+    static GameWorld playing(long seed) {
+        GameWorld world = new GameWorld(seed);
+        world.tick(0);                     // creates the player
+        world.tick(InputManager.ENTER);    // MENU -> PLAYING
+        return world;
+    }
+
+    // Spread obstacles over the whole playfield, then let one tick bring them into the world
+    static void fill(GameWorld world, int obstacles, GameRandom random) {
+        for (int i = 0; i < obstacles; i++) {
+            world.spawnObstacle(random.nextInt(GamePanel.WIDTH - Obstacle.WIDTH), random.nextInt(GamePanel.HEIGHT));
+        }
+        world.tick(0);
+    }
+
+    // Replace obstacles that fell off or were destroyed so every measured tick sees the same load
+    static void topUp(GameWorld world, int obstacles, GameRandom random) {
+        for (int i = world.getObstacles().size(); i < obstacles; i++) {
+            world.spawnObstacle(random.nextInt(GamePanel.WIDTH - Obstacle.WIDTH), 0);
+        }
+    }
+}
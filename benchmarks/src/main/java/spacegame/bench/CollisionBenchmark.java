@@ -0,0 +1,91 @@
+package spacegame.bench;
+
+import org.openjdk.jmh.annotations.*;
+import spacegame.CollisionSystem;
+import spacegame.GamePanel;
+import spacegame.GameRandom;
+import spacegame.GameWorld;
+import spacegame.InputManager;
+import spacegame.Obstacle;
+import spacegame.Player;
+import spacegame.ProjectilePool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Discrete against swept collision: one collision pass on its own (grid build plus a ship and
+// a full pool of shots), and a whole tick with fire held so shots are always in flight
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CollisionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int obstacles;
+
+    @Param({"discrete", "swept"})
+    public String mode;
+
+    // How far shots and the ship move per tick in the standalone pass
+    private static final int SHOT_STEP = 10;
+    private static final int SHIP_STEP = 5;
+
+    private boolean swept;
+    private final CollisionSystem collisions = new CollisionSystem();
+    private final List<Obstacle> field = new ArrayList<>();
+    private final int[] shotX = new int[ProjectilePool.DEFAULT_CAPACITY];
+    private final int[] shotY = new int[ProjectilePool.DEFAULT_CAPACITY];
+
+    private GameWorld world;
+    private GameRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        swept = mode.equals("swept");
+        random = new GameRandom(7);
+        for (int i = 0; i < obstacles; i++) {
+            Obstacle o = new Obstacle(random.nextInt(GamePanel.WIDTH - Obstacle.WIDTH), random.nextInt(GamePanel.HEIGHT), 0);
+            o.update();
+            field.add(o);
+        }
+        for (int i = 0; i < shotX.length; i++) {
+            shotX[i] = random.nextInt(GamePanel.WIDTH - ProjectilePool.WIDTH);
+            shotY[i] = random.nextInt(GamePanel.HEIGHT);
+        }
+
+        world = BenchWorlds.playing(1);
+        world.setSweptCollision(swept);
+        BenchWorlds.fill(world, obstacles, random);
+    }
+
+    @Benchmark
+    public int pass() {
+        collisions.build(field);
+        int shipY = GamePanel.HEIGHT - Player.HEIGHT - 20;
+        if (swept) {
+            collisions.collideSwept(0, GamePanel.WIDTH / 2, shipY, Player.WIDTH, Player.HEIGHT, SHIP_STEP, 0);
+        } else {
+            collisions.collide(0, GamePanel.WIDTH / 2 + SHIP_STEP, shipY, Player.WIDTH, Player.HEIGHT);
+        }
+        for (int i = 0; i < shotX.length; i++) {
+            if (swept) {
+                collisions.collideSwept(1 + i, shotX[i], shotY[i], ProjectilePool.WIDTH, ProjectilePool.HEIGHT, 0, -SHOT_STEP);
+            } else {
+                collisions.collide(1 + i, shotX[i], shotY[i] - SHOT_STEP, ProjectilePool.WIDTH, ProjectilePool.HEIGHT);
+            }
+        }
+        collisions.sortPairs();
+        return collisions.getPairCount();
+    }
+
+    @Benchmark
+    public long tick() {
+        BenchWorlds.topUp(world, obstacles, random);
+        world.tick(InputManager.FIRE);
+        return world.getTick();
+    }
+}
@@ -0,0 +1,60 @@
+package spacegame.bench;
+
+import org.openjdk.jmh.annotations.*;
+import spacegame.GameEnv;
+import spacegame.GameEnvBatch;
+import spacegame.GameRandom;
+
+import java.util.concurrent.TimeUnit;
+
+// Agent-facing step rate: one env stepped under random actions, and a batch of envs stepped
+// together (run with -prof gc to confirm neither allocates per step)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EnvBenchmark {
+
+    @Param({"64"})
+    public int envs;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private GameEnv env;
+    private GameEnvBatch batch;
+    private GameRandom random;
+    private int[] actions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new GameRandom(7);
+        env = new GameEnv(1);
+        env.reset();
+        batch = new GameEnvBatch(envs, 1, threads);
+        batch.reset();
+        actions = new int[envs];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batch.close();
+    }
+
+    @Benchmark
+    public float step() {
+        float reward = env.step(random.nextInt(GameEnv.ACTION_COUNT));
+        if (env.isDone()) env.reset();
+        return reward;
+    }
+
+    // One call steps every env in the batch; multiply by envs for env-steps per second
+    @Benchmark
+    public float[] batchStep() {
+        for (int i = 0; i < actions.length; i++) actions[i] = random.nextInt(GameEnv.ACTION_COUNT);
+        batch.step(actions);
+        return batch.getRewards();
+    }
+}
@@ -0,0 +1,49 @@
+package spacegame.bench;
+
+import org.openjdk.jmh.annotations.*;
+import spacegame.GameRandom;
+import spacegame.GameWorld;
+import spacegame.InputManager;
+
+import java.util.concurrent.TimeUnit;
+
+// One full tick of a large world with the per-entity work spread over 1..N threads;
+// threads = 1 is the sequential path the others must match
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ParallelTickBenchmark {
+
+    @Param({"10000", "50000"})
+    public int obstacles;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private GameWorld world;
+    private GameRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new GameRandom(7);
+        world = BenchWorlds.playing(1);
+        world.setInvulnerable(true);
+        world.setParallelism(threads);
+        BenchWorlds.fill(world, obstacles, random);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.setParallelism(1);
+    }
+
+    @Benchmark
+    public long tick() {
+        BenchWorlds.topUp(world, obstacles, random);
+        world.tick(InputManager.FIRE);
+        return world.getTick();
+    }
+}
@@ -0,0 +1,61 @@
+package spacegame.bench;
+
+import org.openjdk.jmh.annotations.*;
+import spacegame.GamePanel;
+import spacegame.GameRandom;
+import spacegame.ParticleSystem;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Explosion particles: one tick of integration, and one frame of drawing, at a given live count
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ParticleBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int particles;
+
+    private ParticleSystem system;
+    private GameRandom random;
+    private BufferedImage frame;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new GameRandom(3);
+        system = new ParticleSystem(new GameRandom(5));
+        refill();
+        frame = new BufferedImage(GamePanel.WIDTH, GamePanel.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    private void refill() {
+        while (system.getLiveCount() + ParticleSystem.PARTICLES_PER_EXPLOSION <= particles) {
+            system.spawnExplosion(random.nextInt(GamePanel.WIDTH), random.nextInt(GamePanel.HEIGHT));
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        refill();
+        system.update();
+        return system.getLiveCount();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        system.draw(g);
+        return frame;
+    }
+}
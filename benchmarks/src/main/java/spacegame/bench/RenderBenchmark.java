@@ -0,0 +1,73 @@
+package spacegame.bench;
+
+import org.openjdk.jmh.annotations.*;
+import spacegame.Assets;
+import spacegame.GamePanel;
+import spacegame.GameRandom;
+import spacegame.GameRenderer;
+import spacegame.GameWorld;
+import spacegame.InputManager;
+import spacegame.QualityGovernor;
+import spacegame.RenderSnapshot;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// A complete frame (sky, ship, projectiles, obstacles, particles) drawn into an offscreen image
+// from a render snapshot, and the cost of capturing that snapshot at the end of a tick, at a
+// pinned effects quality.
+// Run from the repository root so the renderer finds its sprites.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int obstacles;
+
+    @Param({"HIGH", "LOW"})
+    public String quality;
+
+    private GameWorld world;
+    private GameRenderer renderer;
+    private RenderSnapshot snapshot;
+    private BufferedImage frame;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        QualityGovernor.Level level = QualityGovernor.Level.parse(quality);
+        world = BenchWorlds.playing(1);
+        world.getParticles().setPerExplosion(level.particlesPerExplosion);
+        BenchWorlds.fill(world, obstacles, new GameRandom(7));
+        // A few ticks of fire so there are projectiles and explosions on screen
+        for (int i = 0; i < 30; i++) world.tick(InputManager.FIRE);
+        renderer = new GameRenderer(Assets.load(false).await());
+        renderer.setQuality(level);
+        snapshot = new RenderSnapshot();
+        snapshot.capture(world, 0);
+        frame = new BufferedImage(GamePanel.WIDTH, GamePanel.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage renderFrame() {
+        renderer.render(g, snapshot, 0.5f);
+        return frame;
+    }
+
+    @Benchmark
+    public RenderSnapshot captureSnapshot() {
+        snapshot.capture(world, 0);
+        return snapshot;
+    }
+}
@@ -0,0 +1,52 @@
+package spacegame.bench;
+
+import org.openjdk.jmh.annotations.*;
+import spacegame.GamePanel;
+import spacegame.GameRandom;
+import spacegame.Starfield;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Background stars: the per-tick twinkle/fall update, and update plus the re-render it forces
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StarfieldBenchmark {
+
+    @Param({"200", "100000"})
+    public int stars;
+
+    private Starfield starfield;
+    private BufferedImage frame;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        starfield = new Starfield(stars, GamePanel.WIDTH, GamePanel.HEIGHT, new GameRandom(11));
+        frame = new BufferedImage(GamePanel.WIDTH, GamePanel.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public Starfield update() {
+        starfield.update();
+        return starfield;
+    }
+
+    @Benchmark
+    public BufferedImage updateAndDraw() {
+        starfield.update();
+        starfield.draw(g);
+        return frame;
+    }
+}
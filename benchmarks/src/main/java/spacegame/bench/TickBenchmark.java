@@ -0,0 +1,39 @@
+package spacegame.bench;
+
+import org.openjdk.jmh.annotations.*;
+import spacegame.GameRandom;
+import spacegame.GameWorld;
+import spacegame.InputManager;
+
+import java.util.concurrent.TimeUnit;
+
+// One full simulation tick (movement, obstacle culling, collision, particles, spawning)
+// with the obstacle population held at a fixed size
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TickBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int obstacles;
+
+    private GameWorld world;
+    private GameRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new GameRandom(7);
+        world = BenchWorlds.playing(1);
+        BenchWorlds.fill(world, obstacles, random);
+    }
+
+    @Benchmark
+    public long tick() {
+        BenchWorlds.topUp(world, obstacles, random);
+        world.tick(InputManager.FIRE);
+        return world.getTick();
+    }
+}
@@ -0,0 +1,157 @@
+package spacegame;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Images and sounds, loaded from the classpath in parallel on a small background pool so the
+// window can come up (and show a loading screen) while they decode. Images are converted to
+// the screen's own format on the way in, so Java2D can cache them on the graphics card and
+// every later blit is a straight copy. Each asset's load time is kept for the startup report.
+public class Assets {
+
+    public static final String SHIP_IMAGE = "/Images/Asteroid Destroyer.png";
+    public static final String OBSTACLE_SHEET = "/Images/AngryGuy.png";
+
+    private final long startNanos = System.nanoTime();
+    private final List<String> names = new ArrayList<>();
+    private final List<CompletableFuture<?>> tasks = new ArrayList<>();
+    private final long[] loadNanos;
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final CompletableFuture<Void> done;
+    private volatile long totalNanos;
+
+    private final CompletableFuture<BufferedImage> ship;
+    private final CompletableFuture<SpriteAtlas> obstacleSprites;
+    private final CompletableFuture<SoundPlayer> sounds;
+
+    private Assets(ExecutorService pool, boolean withSound) {
+        int taskCount = 2 + (withSound ? SoundPlayer.Sound.values().length + 1 : 0);
+        loadNanos = new long[taskCount];
+
+        ship = submit(pool, "ship", () -> toCompatible(readImage(SHIP_IMAGE)));
+        obstacleSprites = submit(pool, "obstacles", () -> SpriteAtlas.forObstacles(readImage(OBSTACLE_SHEET)));
+
+        if (withSound) {
+            // Every sound decodes while the mixer is probed; the voices open once all are in
+            List<CompletableFuture<SoundPlayer.Pcm>> decoded = new ArrayList<>();
+            for (SoundPlayer.Sound sound : SoundPlayer.Sound.values()) {
+                decoded.add(submit(pool, "sound " + sound.name().toLowerCase(), () -> SoundPlayer.decode(sound)));
+            }
+            CompletableFuture<AudioBackend> backend = submit(pool, "audio device", SoundPlayer::defaultBackend);
+            sounds = CompletableFuture.allOf(decoded.toArray(new CompletableFuture<?>[0]))
+                    .thenCombine(backend, (v, audio) -> {
+                        SoundPlayer.Pcm[] pcm = new SoundPlayer.Pcm[decoded.size()];
+                        for (int i = 0; i < pcm.length; i++) pcm[i] = decoded.get(i).join();
+                        return new SoundPlayer(audio, SoundPlayer.DEFAULT_VOICES, pcm);
+                    });
+        } else {
+            sounds = CompletableFuture.completedFuture(null);
+        }
+
+        List<CompletableFuture<?>> all = new ArrayList<>(tasks);
+        all.add(sounds);
+        done = CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((v, e) -> {
+                    totalNanos = System.nanoTime() - startNanos;
+                    pool.shutdown();
+                });
+    }
+
+    // Start loading everything; returns at once
+    public static Assets load(boolean withSound) {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "assets-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        return new Assets(pool, withSound);
+    }
+
+    // A failed asset completes as null (reported on stderr), so the game runs without it as it always has
+    private <T> CompletableFuture<T> submit(ExecutorService pool, String name, Loader<T> loader) {
+        int index = tasks.size();
+        names.add(name);
+        CompletableFuture<T> task = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return loader.load();
+            } catch (Exception e) {
+                System.err.println("Error loading " + name + ": " + e);
+                return null;
+            } finally {
+                loadNanos[index] = System.nanoTime() - start;
+                loaded.incrementAndGet();
+            }
+        }, pool);
+        tasks.add(task);
+        return task;
+    }
+
+    private interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private static BufferedImage readImage(String resource) throws IOException {
+        try (InputStream in = Assets.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("missing resource " + resource);
+            BufferedImage image = ImageIO.read(in);
+            if (image == null) throw new IOException("unreadable image " + resource);
+            return image;
+        }
+    }
+
+    // Redraw into the screen's pixel layout; a PNG decodes to whatever layout the file had
+    private static BufferedImage toCompatible(BufferedImage image) {
+        BufferedImage compatible = SpriteAtlas.createCompatibleImage(image.getWidth(), image.getHeight());
+        Graphics2D g = compatible.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+
+    public boolean isDone() {
+        return done.isDone();
+    }
+
+    // Block until everything has loaded (or failed); for tools and benchmarks that draw straight away
+    public Assets await() {
+        done.join();
+        return this;
+    }
+
+    public int getLoadedCount() { return loaded.get(); }
+    public int getCount() { return loadNanos.length; }
+
+    // Null until loaded, and for good if the asset failed (or sound wasn't asked for)
+    public BufferedImage getShip() { return ship.getNow(null); }
+    public SpriteAtlas getObstacleSprites() { return obstacleSprites.getNow(null); }
+    public SoundPlayer getSounds() { return sounds.getNow(null); }
+
+    // e.g. "assets: 4 in 85.2 ms (ship 21.0, obstacles 38.4, sound fire 9.1, ...)"
+    public void printTimings(PrintStream out) {
+        StringBuilder line = new StringBuilder(String.format("assets: %d in %.1f ms (", names.size(), totalNanos / 1e6));
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) line.append(", ");
+            line.append(String.format("%s %.1f", names.get(i), loadNanos[i] / 1e6));
+        }
+        out.println(line.append(')'));
+    }
+
+    // Runs on the pool thread that finished last, or at once if everything is already in
+    public void whenDone(Runnable action) {
+        done.thenRun(action);
+    }
+}
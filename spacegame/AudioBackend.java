@@ -0,0 +1,23 @@
+package spacegame;
+
+import javax.sound.sampled.AudioFormat;
+
+// Where decoded sounds end up. The Java Sound backend plays them; NULL swallows them,
+// which keeps the game and its headless tools working on machines without audio.
+public interface AudioBackend {
+
+    // One playable copy of a sound; a sound gets several so overlapping plays don't cut each other off
+    interface Voice {
+        void restart();
+        boolean isPlaying();
+        void close();
+    }
+
+    Voice open(AudioFormat format, byte[] data) throws Exception;
+
+    AudioBackend NULL = (format, data) -> new Voice() {
+        public void restart() {}
+        public boolean isPlaying() { return false; }
+        public void close() {}
+    };
+}
@@ -0,0 +1,62 @@
+package spacegame;
+
+import java.util.List;
+
+// Stand-in for the keyboard that plays the game itself, for stress runs and unattended soaks.
+// It reads the world it is attached to, so its choices are deterministic and a recorded
+// autopilot session replays like any other.
+public class Autopilot implements InputSource {
+
+    // How far above the ship an obstacle counts as a threat, and the extra lane width either side
+    private static final int LOOKAHEAD = 120;
+    private static final int LANE_MARGIN = 10;
+    // Dash when a threat is this close to the top of the ship
+    private static final int DASH_DISTANCE = 30;
+
+    private final GameWorld world;
+
+    public Autopilot(GameWorld world) {
+        this.world = world;
+    }
+
+    @Override
+    public int poll() {
+        switch (world.getGameState()) {
+            case MENU: return InputManager.ENTER;
+            case GAME_OVER: return InputManager.RESTART;
+            default: break;
+        }
+        Player player = world.getPlayer();
+        if (player == null) return 0;
+
+        int left = player.getX() - LANE_MARGIN;
+        int right = player.getX() + Player.WIDTH + LANE_MARGIN;
+        int top = player.getY() - LOOKAHEAD;
+
+        // Lowest obstacle in the ship's lane, i.e. the one that arrives first
+        Obstacle threat = null;
+        List<Obstacle> obstacles = world.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle o = obstacles.get(i);
+            int bottom = o.getY() + o.getSize();
+            if (bottom < top || o.getY() > player.getY() + Player.HEIGHT) continue;
+            if (o.getX() + o.getSize() < left || o.getX() > right) continue;
+            if (threat == null || bottom > threat.getY() + threat.getSize()) threat = o;
+        }
+
+        int mask = InputManager.FIRE;
+        if (threat == null) return mask;
+
+        // Step away from the threat's centre, unless a wall is in the way
+        int shipCentre = player.getX() + Player.WIDTH / 2;
+        boolean goRight = threat.getX() + threat.getSize() / 2 < shipCentre;
+        if (goRight && player.getX() + Player.WIDTH >= GamePanel.WIDTH) goRight = false;
+        else if (!goRight && player.getX() <= 0) goRight = true;
+        mask |= goRight ? InputManager.RIGHT : InputManager.LEFT;
+
+        if (player.getY() - (threat.getY() + threat.getSize()) < DASH_DISTANCE && player.canDash()) {
+            mask |= InputManager.DASH;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,162 @@
+package spacegame;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Headless batch runner: plays many independent sessions, each with its own world, seed and
+// bot, on a work-stealing pool, and reports aggregate throughput plus how each session went.
+// A session runs from the menu until its first game over or the tick limit. Session n uses
+// seed n and the CSV keeps its final checksum, so rerunning it here must land on the same value.
+// The window is not a rerun: it ticks the menu while assets load, so SpaceGame --seed=n plays a
+// different game. To watch a run again, record it with SpaceGame --record and use --replay.
+// Usage: java spacegame.BatchRunner [sessions] [max-ticks] [threads] [autopilot|random] [results.csv]
+public class BatchRunner {
+
+    // 5 minutes of game time
+    private static final long DEFAULT_MAX_TICKS = 5 * 60 * 1000 / GameWorld.TICK_MILLIS;
+    // How long the random bot holds one set of keys
+    private static final int RANDOM_HOLD_TICKS = 8;
+
+    // What one session came to
+    static class Session {
+        final long seed;
+        int score;
+        long survivedMillis;
+        long ticks;
+        long checksum;
+        long nanos;
+
+        Session(long seed) {
+            this.seed = seed;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        long maxTicks = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_MAX_TICKS;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String bot = (args.length > 3) ? args[3] : "autopilot";
+        Path csv = (args.length > 4) ? Paths.get(args[4]) : null;
+        if (!bot.equals("autopilot") && !bot.equals("random")) {
+            throw new IllegalArgumentException("Unknown bot: " + bot + " (autopilot or random)");
+        }
+
+        // One task per session: sessions end at very different times, and idle workers steal
+        // whatever is still queued rather than waiting on a fixed share
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<ForkJoinTask<Session>> tasks = new ArrayList<>(sessions);
+        for (int i = 1; i <= sessions; i++) {
+            long seed = i;
+            tasks.add(pool.submit(() -> play(seed, bot, maxTicks)));
+        }
+        Session[] results = new Session[sessions];
+        for (int i = 0; i < sessions; i++) results[i] = tasks.get(i).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        report(results, threads, bot, maxTicks, seconds);
+        if (csv != null) {
+            writeCsv(results, csv);
+            System.out.println("Per-session results: " + csv);
+        }
+    }
+
+    // One full session on the calling thread; touches nothing shared
+    static Session play(long seed, String bot, long maxTicks) {
+        GameWorld world = new GameWorld(seed);
+        InputSource input = bot.equals("random") ? randomBot(world, seed) : new Autopilot(world);
+        Simulation simulation = new Simulation(world, input);
+
+        Session session = new Session(seed);
+        long start = System.nanoTime();
+        boolean started = false;
+        while (session.ticks < maxTicks) {
+            simulation.step();
+            session.ticks++;
+            GameWorld.GameState state = world.getGameState();
+            if (state == GameWorld.GameState.PLAYING) started = true;
+            else if (started && state == GameWorld.GameState.GAME_OVER) break;
+        }
+        session.nanos = System.nanoTime() - start;
+        session.score = world.getScore();
+        session.survivedMillis = world.getElapsedMillis();
+        session.checksum = world.checksum();
+        return session;
+    }
+
+    // Mashes a random mix of move, fire and dash keys, changing its mind every few ticks
+    private static InputSource randomBot(GameWorld world, long seed) {
+        GameRandom random = new GameRandom(seed * 31 + 7);
+        int[] held = new int[1];
+        return () -> {
+            if (world.getGameState() != GameWorld.GameState.PLAYING) return InputManager.ENTER;
+            if (world.getTick() % RANDOM_HOLD_TICKS == 0) {
+                // LEFT, RIGHT, FIRE and DASH are the four low bits
+                held[0] = random.nextInt(InputManager.DASH << 1);
+            }
+            return held[0];
+        };
+    }
+
+    private static void report(Session[] results, int threads, String bot, long maxTicks, double seconds) {
+        long totalTicks = 0, busyNanos = 0;
+        int[] scores = new int[results.length];
+        long[] survived = new long[results.length];
+        int timedOut = 0;
+        for (int i = 0; i < results.length; i++) {
+            totalTicks += results[i].ticks;
+            busyNanos += results[i].nanos;
+            scores[i] = results[i].score;
+            survived[i] = results[i].survivedMillis;
+            if (results[i].ticks >= maxTicks) timedOut++;
+        }
+        Arrays.sort(scores);
+        Arrays.sort(survived);
+
+        System.out.printf("%,d %s sessions on %d thread(s) in %.2fs%n", results.length, bot, threads, seconds);
+        System.out.printf("throughput: %,.0f ticks/s, %,.1f sessions/s (%,.0f ticks/s per busy thread)%n",
+                totalTicks / seconds, results.length / seconds, totalTicks / (busyNanos / 1e9));
+        System.out.printf("score:    mean %.1f  p50 %d  p90 %d  max %d%n",
+                Arrays.stream(scores).average().orElse(0), percentile(scores, 0.5), percentile(scores, 0.9),
+                scores.length > 0 ? scores[scores.length - 1] : 0);
+        System.out.printf("survived: mean %.1fs  p50 %.1fs  p90 %.1fs  max %.1fs  (%d hit the %,d tick limit)%n",
+                Arrays.stream(survived).average().orElse(0) / 1000, percentile(survived, 0.5) / 1000.0,
+                percentile(survived, 0.9) / 1000.0, (survived.length > 0 ? survived[survived.length - 1] : 0) / 1000.0,
+                timedOut, maxTicks);
+
+        Session best = null;
+        for (Session s : results) {
+            if (best == null || s.score > best.score) best = s;
+        }
+        if (best != null) {
+            System.out.printf("best:     seed %d, score %d, survived %.1fs%n", best.seed, best.score, best.survivedMillis / 1000.0);
+        }
+    }
+
+    private static int percentile(int[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, p * sorted.length)];
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, p * sorted.length)];
+    }
+
+    private static void writeCsv(Session[] results, Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("seed,score,survived_ms,ticks,run_us,checksum");
+            for (Session s : results) {
+                out.printf("%d,%d,%d,%d,%d,%016x%n", s.seed, s.score, s.survivedMillis, s.ticks, s.nanos / 1000, s.checksum);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package spacegame;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Uniform-grid broadphase over the playfield.
+// Each tick the obstacles are bucketed by the cell holding their top-left corner; colliders
+// (player, projectiles) then only test obstacles in the cells their box can reach.
+// Colliders can be tested where they ended the tick (collide) or along the whole path they
+// moved during it, against obstacles along theirs (collideSwept), so nothing fast tunnels.
+// All tests run on primitive int coordinates and nothing is allocated once the arrays have grown.
+public class CollisionSystem {
+
+    public static final int CELL_SIZE = 32;
+    private static final int COLS = (GamePanel.WIDTH + CELL_SIZE - 1) / CELL_SIZE;
+    private static final int ROWS = (GamePanel.HEIGHT + CELL_SIZE - 1) / CELL_SIZE;
+
+    // Grid as intrusive linked lists: cellHead[cell] -> first obstacle index, next[i] -> following one
+    private final int[] cellHead = new int[COLS * ROWS];
+    private int[] next = new int[64];
+
+    // Obstacle boxes copied out once per tick, with where each stood before this tick's fall
+    private int[] ox = new int[64];
+    private int[] oy = new int[64];
+    private int[] oprevY = new int[64];
+    private int[] osize = new int[64];
+    private int obstacleCount = 0;
+    // Largest obstacle and longest fall this tick; decide how far around a box a query has to look
+    private int maxSize = 0;
+    private int maxFall = 0;
+
+    // Hit pairs packed as (obstacle index << 32 | collider id) so sorting orders them by obstacle
+    private long[] pairs = new long[16];
+    private int pairCount = 0;
+
+    // Rebuild the grid from this tick's obstacle positions and forget last tick's pairs
+    public void build(List<Obstacle> obstacles) {
+        int n = obstacles.size();
+        if (n > ox.length) {
+            int capacity = Math.max(n, ox.length * 2);
+            ox = Arrays.copyOf(ox, capacity);
+            oy = Arrays.copyOf(oy, capacity);
+            oprevY = Arrays.copyOf(oprevY, capacity);
+            osize = Arrays.copyOf(osize, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        Arrays.fill(cellHead, -1);
+        int largest = 0, fall = 0;
+        for (int i = 0; i < n; i++) {
+            Obstacle o = obstacles.get(i);
+            ox[i] = o.getX();
+            oy[i] = o.getY();
+            oprevY[i] = o.getPrevY();
+            osize[i] = o.getSize();
+            if (osize[i] > largest) largest = osize[i];
+            if (oy[i] - oprevY[i] > fall) fall = oy[i] - oprevY[i];
+            int cell = row(oy[i]) * COLS + col(ox[i]);
+            next[i] = cellHead[cell];
+            cellHead[cell] = i;
+        }
+        obstacleCount = n;
+        maxSize = largest;
+        maxFall = fall;
+        pairCount = 0;
+    }
+
+    // Record a pair for every obstacle overlapping the given box; returns how many were found
+    public int collide(int colliderId, int x, int y, int w, int h) {
+        // An obstacle whose corner lies up to one (largest) obstacle-size left/above the box can still reach it
+        int c0 = col(x - maxSize + 1), c1 = col(x + w - 1);
+        int r0 = row(y - maxSize + 1), r1 = row(y + h - 1);
+        int found = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int i = cellHead[r * COLS + c]; i >= 0; i = next[i]) {
+                    if (overlaps(x, y, w, h, ox[i], oy[i], osize[i], osize[i])) {
+                        addPair(i, colliderId);
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Record a pair for every obstacle the box touches at any moment while it moves from (x, y)
+    // by (dx, dy) over the tick; returns how many were found. Obstacles are swept from their
+    // previous position to their current one over the same tick.
+    public int collideSwept(int colliderId, int x, int y, int w, int h, int dx, int dy) {
+        int minX = Math.min(x, x + dx), maxX = Math.max(x, x + dx) + w;
+        int minY = Math.min(y, y + dy), maxY = Math.max(y, y + dy) + h;
+        // As in collide(), plus obstacles that ended up to one fall below the path but crossed it on the way
+        int c0 = col(minX - maxSize + 1), c1 = col(maxX - 1);
+        int r0 = row(minY - maxSize + 1), r1 = row(maxY - 1 + maxFall);
+        int found = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int i = cellHead[r * COLS + c]; i >= 0; i = next[i]) {
+                    if (sweptOverlaps(x, y, w, h, dx, dy, ox[i], oprevY[i], osize[i], osize[i], 0, oy[i] - oprevY[i])) {
+                        addPair(i, colliderId);
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Put pairs in obstacle order (then collider order) so resolution matches a linear scan
+    public void sortPairs() {
+        Arrays.sort(pairs, 0, pairCount);
+    }
+
+    public int getPairCount() { return pairCount; }
+    public int getPairObstacle(int pair) { return (int) (pairs[pair] >>> 32); }
+    public int getPairCollider(int pair) { return (int) pairs[pair]; }
+    public int getObstacleCount() { return obstacleCount; }
+
+    public static boolean overlaps(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx + bw && bx < ax + aw && ay < by + bh && by < ay + ah;
+    }
+
+    // Swept AABB test: box a moves by (adx, ady) and box b by (bdx, bdy), both in a straight line
+    // over one tick. True if they overlap at any moment of it; with no movement, or at the end of
+    // the tick, this is exactly overlaps(). Works in b's frame, where a moves by the difference,
+    // and intersects the spans of time the two boxes overlap along each axis.
+    public static boolean sweptOverlaps(int ax, int ay, int aw, int ah, int adx, int ady,
+                                        int bx, int by, int bw, int bh, int bdx, int bdy) {
+        int vx = adx - bdx, vy = ady - bdy;
+        double enter = Double.NEGATIVE_INFINITY, exit = Double.POSITIVE_INFINITY;
+        if (vx == 0) {
+            if (!(ax < bx + bw && bx < ax + aw)) return false;
+        } else {
+            double t0 = (double) (bx - ax - aw) / vx, t1 = (double) (bx + bw - ax) / vx;
+            enter = Math.min(t0, t1);
+            exit = Math.max(t0, t1);
+        }
+        if (vy == 0) {
+            if (!(ay < by + bh && by < ay + ah)) return false;
+        } else {
+            double t0 = (double) (by - ay - ah) / vy, t1 = (double) (by + bh - ay) / vy;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+        // Overlapping for t strictly inside (enter, exit), which has to meet [0, 1]
+        return enter < exit && enter < 1 && exit > 0;
+    }
+
+    private void addPair(int obstacle, int colliderId) {
+        if (pairCount == pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        pairs[pairCount++] = ((long) obstacle << 32) | (colliderId & 0xFFFFFFFFL);
+    }
+
+    private static int col(int x) {
+        return Math.max(0, Math.min(COLS - 1, Math.floorDiv(x, CELL_SIZE)));
+    }
+
+    private static int row(int y) {
+        return Math.max(0, Math.min(ROWS - 1, Math.floorDiv(y, CELL_SIZE)));
+    }
+}
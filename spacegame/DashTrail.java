@@ -0,0 +1,78 @@
+package spacegame;
+
+// Dash after-images: where the ship was on each tick of a dash, in a fixed ring sized for the
+// longest a step can stay visible. A step fades over fadeTicks ticks and then drops off the
+// old end, so a trail of any length costs no allocation and no per-tick fading loop.
+public class DashTrail {
+
+    // Original look: six steps per dash, each fading out over ten ticks
+    public static final int DEFAULT_STEPS = 6;
+    public static final int DEFAULT_FADE_TICKS = 10;
+
+    private final int steps;
+    private final int fadeTicks;
+
+    // Fade for a trail of the given length: each step stays as much longer than in the
+    // original look as there are extra steps
+    public static int fadeTicksFor(int steps) {
+        return steps + DEFAULT_FADE_TICKS - DEFAULT_STEPS;
+    }
+
+    // At most one step is added per tick, so fadeTicks slots always suffice
+    private final int[] x, y;
+    private final long[] born;
+    private int oldest = 0;
+    private int count = 0;
+
+    public DashTrail() {
+        this(DEFAULT_STEPS, DEFAULT_FADE_TICKS);
+    }
+
+    public DashTrail(int steps, int fadeTicks) {
+        this.steps = steps;
+        this.fadeTicks = fadeTicks;
+        x = new int[fadeTicks];
+        y = new int[fadeTicks];
+        born = new long[fadeTicks];
+    }
+
+    // Leave a step at the ship's position on the given tick
+    public void add(int px, int py, long tick) {
+        if (count == x.length) {
+            oldest = (oldest + 1) % x.length;
+            count--;
+        }
+        int slot = (oldest + count) % x.length;
+        x[slot] = px;
+        y[slot] = py;
+        born[slot] = tick;
+        count++;
+    }
+
+    // Drop the steps that have fully faded by the given tick
+    public void expire(long tick) {
+        while (count > 0 && tick - born[oldest] >= fadeTicks) {
+            oldest = (oldest + 1) % x.length;
+            count--;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    // Copy steps oldest first, with their age in ticks; arrays must hold getFadeTicks() entries
+    public int copyTo(int[] toX, int[] toY, int[] toAge, long tick) {
+        for (int i = 0; i < count; i++) {
+            int slot = (oldest + i) % x.length;
+            toX[i] = x[slot];
+            toY[i] = y[slot];
+            toAge[i] = (int) (tick - born[slot]);
+        }
+        return count;
+    }
+
+    public int getCount() { return count; }
+    public int getSteps() { return steps; }
+    public int getFadeTicks() { return fadeTicks; }
+}
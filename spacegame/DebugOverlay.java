@@ -0,0 +1,44 @@
+package spacegame;
+
+import java.awt.*;
+
+// F3 overlay beside the HUD: frame and tick percentiles, entity counts, input latency, allocation per tick.
+// The text is rebuilt a few times a second rather than every frame.
+public class DebugOverlay {
+
+    private static final long REFRESH_NANOS = 250_000_000L;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+    private static final int X = 320, Y = 10, WIDTH = 170, LINE_HEIGHT = 13;
+
+    private final String[] lines = new String[6];
+    private long lastRefresh;
+
+    public void draw(Graphics g, Metrics metrics, RenderSnapshot snapshot) {
+        long now = System.nanoTime();
+        if (lines[0] == null || now - lastRefresh >= REFRESH_NANOS) {
+            refresh(metrics, snapshot);
+            lastRefresh = now;
+        }
+
+        g.setColor(BACKGROUND);
+        g.fillRect(X, Y, WIDTH, lines.length * LINE_HEIGHT + 6);
+        g.setColor(Color.YELLOW);
+        g.setFont(Fonts.DEBUG);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], X + 4, Y + (i + 1) * LINE_HEIGHT);
+        }
+    }
+
+    private void refresh(Metrics metrics, RenderSnapshot snapshot) {
+        Histogram frame = metrics.get(Metrics.Phase.FRAME);
+        Histogram tick = metrics.get(Metrics.Phase.TICK);
+        Histogram render = metrics.get(Metrics.Phase.RENDER);
+        Histogram latency = metrics.get(Metrics.Phase.LATENCY);
+        lines[0] = String.format("frame  p50 %.1f  p99 %.1f ms", frame.percentile(0.5) / 1e6, frame.percentile(0.99) / 1e6);
+        lines[1] = String.format("tick   p50 %.2f  p99 %.2f ms", tick.percentile(0.5) / 1e6, tick.percentile(0.99) / 1e6);
+        lines[2] = String.format("render p50 %.2f  p99 %.2f ms", render.percentile(0.5) / 1e6, render.percentile(0.99) / 1e6);
+        lines[3] = String.format("obstacles %d  particles %d", snapshot.getObstacleCount(), snapshot.getParticleCount());
+        lines[4] = String.format("input p50 %.1f  p99 %.1f ms", latency.percentile(0.5) / 1e6, latency.percentile(0.99) / 1e6);
+        lines[5] = String.format("alloc %.0f B/tick", metrics.getAllocatedPerTick().getMean());
+    }
+}
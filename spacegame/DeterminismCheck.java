@@ -0,0 +1,76 @@
+package spacegame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Headless determinism check: records seeded-bot sessions and re-simulates them from the replay
+// file, and plays the same stress session on one thread and on several, failing if any pair ends
+// on a different checksum. Runs as part of mvn test, next to HeadlessSoak.
+// Usage: java -Djava.awt.headless=true spacegame.DeterminismCheck [ticks]
+public class DeterminismCheck {
+
+    private static final long SEED = 42L;
+    private static final int PARALLEL_THREADS = 4;
+
+    public static void main(String[] args) throws IOException {
+        long ticks = (args.length > 0) ? Long.parseLong(args[0]) : 1_500L;
+
+        boolean ok = checkReplay("classic", false, true, ticks);
+        ok &= checkReplay("stress", true, true, ticks);
+        ok &= checkReplay("classic", false, false, ticks);
+        ok &= checkParallel(ticks);
+        if (!ok) {
+            System.err.println("FAIL: state diverged");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // Record a session to a file, read it back and re-simulate it from the header alone
+    private static boolean checkReplay(String waves, boolean invulnerable, boolean swept, long ticks) throws IOException {
+        GameWorld world = newWorld(waves, invulnerable);
+        world.setSweptCollision(swept);
+        Simulation simulation = new Simulation(world, HeadlessSoak.bot(world, SEED));
+        Replay recording = Replay.startFor(world);
+        simulation.record(recording);
+        simulation.runTicks(ticks);
+        recording.finish(world);
+
+        Path file = Files.createTempFile("spacegame-check", ".sfrp");
+        try {
+            recording.write(file);
+            boolean matches = Replay.read(file).verify();
+            System.out.printf("replay %s%s%s: %,d ticks, score %d, %s%n", waves, invulnerable ? " god" : "",
+                    swept ? "" : " discrete", ticks, world.getScore(), matches ? "state matches" : "STATE DIVERGED");
+            return matches;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // The parallel tick promises the sequential outcome; stress waves give it enough obstacles to split
+    private static boolean checkParallel(long ticks) throws IOException {
+        long sequential = playStress(1, ticks);
+        long parallel = playStress(PARALLEL_THREADS, ticks);
+        boolean matches = sequential == parallel;
+        System.out.printf("stress on 1 vs %d threads: %016x / %016x, %s%n", PARALLEL_THREADS, sequential, parallel,
+                matches ? "state matches" : "STATE DIVERGED");
+        return matches;
+    }
+
+    private static long playStress(int threads, long ticks) throws IOException {
+        GameWorld world = newWorld("stress", true);
+        world.setParallelism(threads);
+        new Simulation(world, HeadlessSoak.bot(world, SEED)).runTicks(ticks);
+        world.setParallelism(1);
+        return world.checksum();
+    }
+
+    private static GameWorld newWorld(String waves, boolean invulnerable) throws IOException {
+        GameWorld world = new GameWorld(SEED);
+        world.setSpawnDirector(waves.equals("classic") ? SpawnDirector.classic() : SpawnDirector.load(waves));
+        world.setInvulnerable(invulnerable);
+        return world;
+    }
+}
@@ -0,0 +1,90 @@
+package spacegame;
+
+import java.util.*;
+
+// Registry of live game objects.
+// Spawns and despawns requested during a tick are queued and applied together in flush(),
+// so anything iterating the registry mid-tick never sees it change underneath it.
+public class EntityManager {
+
+    private final List<GameObject> entities = new ArrayList<>();
+    private final List<GameObject> readOnlyEntities = Collections.unmodifiableList(entities);
+    private final List<GameObject> pendingAdds = new ArrayList<>();
+    private final Set<GameObject> pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Per-type lists kept in sync with the main one, and the type each holds (same index).
+    // Plain lists rather than a map so a flush walks them without allocating an iterator.
+    private final List<Class<?>> viewTypes = new ArrayList<>();
+    private final List<List<GameObject>> views = new ArrayList<>();
+
+    // Queue an object to join the registry at the next flush
+    public void spawn(GameObject obj) {
+        pendingAdds.add(obj);
+    }
+
+    // Queue an object to leave the registry at the next flush; safe to call more than once
+    public void despawn(GameObject obj) {
+        pendingRemovals.add(obj);
+    }
+
+    // Apply queued changes, removals first so a spawn/despawn pair in one tick cancels out
+    public void flush() {
+        if (!pendingRemovals.isEmpty()) {
+            removeQueued(entities);
+            for (int v = 0; v < views.size(); v++) removeQueued(views.get(v));
+            removeQueued(pendingAdds);
+            pendingRemovals.clear();
+        }
+        for (int i = 0; i < pendingAdds.size(); i++) {
+            GameObject obj = pendingAdds.get(i);
+            entities.add(obj);
+            for (int v = 0; v < views.size(); v++) {
+                if (viewTypes.get(v).isInstance(obj)) views.get(v).add(obj);
+            }
+        }
+        pendingAdds.clear();
+    }
+
+    private void removeQueued(List<GameObject> list) {
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++) {
+            GameObject obj = list.get(i);
+            if (!pendingRemovals.contains(obj)) list.set(kept++, obj);
+        }
+        list.subList(kept, list.size()).clear();
+    }
+
+    // Drop everything, including anything still queued
+    public void clear() {
+        entities.clear();
+        pendingAdds.clear();
+        pendingRemovals.clear();
+        for (int v = 0; v < views.size(); v++) views.get(v).clear();
+    }
+
+    // Read-only list of every live object, in spawn order
+    public List<GameObject> all() {
+        return readOnlyEntities;
+    }
+
+    // Read-only list of the live objects of one type, in spawn order; stays current across flushes,
+    // so callers should ask once and keep it
+    @SuppressWarnings("unchecked")
+    public <T extends GameObject> List<T> view(Class<T> type) {
+        int index = viewTypes.indexOf(type);
+        if (index < 0) {
+            List<GameObject> view = new ArrayList<>();
+            for (GameObject obj : entities) {
+                if (type.isInstance(obj)) view.add(obj);
+            }
+            index = views.size();
+            viewTypes.add(type);
+            views.add(view);
+        }
+        return (List<T>) Collections.unmodifiableList(views.get(index));
+    }
+
+    public int size() {
+        return entities.size();
+    }
+}
@@ -0,0 +1,27 @@
+package spacegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Every font the game draws with, created once. Text is rendered into cached images by HUD and
+// TextScreen, so these are read at startup and when a cached surface changes, never per frame.
+public final class Fonts {
+
+    // Menu and game-over screens
+    public static final Font SCREEN = new Font("Arial", Font.BOLD, 24);
+    // Score / health / time strip
+    public static final Font HUD = new Font("Dialog", Font.PLAIN, 14);
+    // F3 overlay
+    public static final Font DEBUG = new Font("Dialog", Font.PLAIN, 11);
+
+    private Fonts() {}
+
+    // Metrics for laying out text before there is anything to draw on; same (plain, unhinted)
+    // render context as the game's own Graphics, so widths match what gets drawn
+    public static FontMetrics metrics(Font font) {
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics fm = g.getFontMetrics(font);
+        g.dispose();
+        return fm;
+    }
+}
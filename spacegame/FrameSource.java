@@ -0,0 +1,18 @@
+package spacegame;
+
+// What a front end draws from: something that publishes render snapshots and wants a nudge
+// once per frame. A local Simulation is one; a NetClient mirroring a remote server is another.
+public interface FrameSource {
+
+    // Buffer the snapshots land in; call once, before the first update
+    RenderBuffer publishSnapshots();
+
+    // Catch up to nowNanos (run due ticks, read the network, ...) and publish what changed
+    void update(long nowNanos);
+
+    Metrics getMetrics();
+
+    // Scale whatever effects this source simulates (particles, trails) to a quality level;
+    // called from the thread that calls update
+    void setQuality(QualityGovernor.Level level);
+}
@@ -0,0 +1,123 @@
+package spacegame;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+// Active front end: a dedicated render thread advances the simulation and draws straight
+// into a BufferStrategy, so frame pacing no longer depends on Swing's repaint coalescing.
+public class GameCanvas extends Canvas {
+
+    public static final int DEFAULT_FPS = 60;
+
+    // Wake this long before a frame deadline and spin the rest, since sleeps overshoot
+    private static final long SPIN_NANOS = 1_000_000L;
+
+    private final FrameSource source;
+    private final RenderBuffer snapshots;
+    private final GameRenderer renderer;
+    private final InputManager input;
+    private final Metrics metrics;
+    private final DebugOverlay overlay = new DebugOverlay();
+
+    // 0 = uncapped
+    private final int targetFps;
+    private volatile boolean running;
+    private Thread renderThread;
+    private QualityGovernor governor;
+
+    public GameCanvas(FrameSource source, InputManager input, GameRenderer renderer, int targetFps) {
+        this.source = source;
+        this.snapshots = source.publishSnapshots();
+        this.renderer = renderer;
+        this.input = input;
+        this.metrics = source.getMetrics();
+        this.targetFps = targetFps;
+        setPreferredSize(new Dimension(GamePanel.WIDTH, GamePanel.HEIGHT));
+        setIgnoreRepaint(true);
+        setFocusable(true);
+        addKeyListener(input);
+    }
+
+    // Let the governor see every frame's timings; call before start()
+    public void setQualityGovernor(QualityGovernor governor) {
+        this.governor = governor;
+    }
+
+    // Must be called once the canvas is displayable (after the frame is shown)
+    public void start() {
+        createBufferStrategy(2);
+        running = true;
+        renderThread = new Thread(this::renderLoop, "render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+        requestFocus();
+    }
+
+    // Stop the render thread and wait for its current frame to finish
+    public void stop() {
+        running = false;
+        if (renderThread != null) {
+            try {
+                renderThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void renderLoop() {
+        BufferStrategy strategy = getBufferStrategy();
+        long frameNanos = (targetFps > 0) ? 1_000_000_000L / targetFps : 0;
+        long nextFrame = System.nanoTime();
+        long lastFrame = -1;
+
+        while (running) {
+            source.update(System.nanoTime());
+
+            long start = metrics.now();
+            RenderSnapshot snapshot = snapshots.acquire();
+            float alpha = snapshot.alphaAt(System.nanoTime());
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        renderer.render(g, snapshot, alpha);
+                        if (input.isDebugOverlayVisible()) overlay.draw(g, metrics, snapshot);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+            metrics.recordLatency(snapshot);
+            if (metrics.isEnabled()) {
+                metrics.record(Metrics.Phase.RENDER, metrics.now() - start);
+                if (lastFrame >= 0) metrics.record(Metrics.Phase.FRAME, start - lastFrame);
+                lastFrame = start;
+            }
+            if (governor != null) governor.onFrame(metrics);
+
+            if (frameNanos > 0) {
+                nextFrame += frameNanos;
+                long now = System.nanoTime();
+                // Fell more than a frame behind: re-anchor instead of rushing to catch up
+                if (now - nextFrame > frameNanos) nextFrame = now;
+                waitUntil(nextFrame);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package spacegame;
+
+import java.util.List;
+
+// Reinforcement-learning style wrapper around one headless world: reset() starts an episode,
+// step(action) advances it one tick and returns the reward, and the observation is a fixed-size
+// float array describing the ship, its shots and the nearest obstacles. A world with no stars
+// and a reused observation array means stepping allocates nothing, so an env runs at raw
+// simulation speed. GameEnvBatch steps many of these side by side.
+public class GameEnv {
+
+    // Actions are InputManager bits; only these four reach the world
+    public static final int ACTION_MASK = InputManager.LEFT | InputManager.RIGHT | InputManager.FIRE | InputManager.DASH;
+    public static final int ACTION_COUNT = ACTION_MASK + 1;
+
+    // Observation layout:
+    //   ship:       x, y, health, can dash (0/1), fire cooldown left           (positions as a fraction of the screen)
+    //   shots:      PROJECTILE_SLOTS x (present, x, y)                         in pool slot order
+    //   obstacles:  OBSTACLE_SLOTS x (present, dx, dy, size, speed)            nearest first, dx/dy from the ship's centre,
+    //                                                                          size and speed relative to a classic obstacle
+    // Empty slots are all zeros.
+    public static final int SHIP_FEATURES = 5;
+    public static final int PROJECTILE_SLOTS = 4;
+    public static final int PROJECTILE_FEATURES = 3;
+    public static final int OBSTACLE_SLOTS = 8;
+    public static final int OBSTACLE_FEATURES = 5;
+    public static final int OBSERVATION_SIZE = SHIP_FEATURES
+            + PROJECTILE_SLOTS * PROJECTILE_FEATURES + OBSTACLE_SLOTS * OBSTACLE_FEATURES;
+
+    // Reward per obstacle shot down, and per point of health lost
+    public static final float HIT_REWARD = 1.0f;
+    public static final float DAMAGE_PENALTY = 1.0f;
+
+    // Episodes that outlive this are cut off (truncated) rather than ended by the game
+    public static final long DEFAULT_MAX_EPISODE_TICKS = 5 * 60 * 1000 / GameWorld.TICK_MILLIS;
+
+    private final GameWorld world;
+    private final float[] observation = new float[OBSERVATION_SIZE];
+    private long maxEpisodeTicks = DEFAULT_MAX_EPISODE_TICKS;
+
+    private long episodeTicks;
+    private int lastScore, lastHealth;
+    private boolean done, truncated;
+
+    // Nearest-obstacle scratch: obstacle index and squared distance, kept sorted nearest first
+    private final int[] nearest = new int[OBSTACLE_SLOTS];
+    private final long[] nearestDistance = new long[OBSTACLE_SLOTS];
+
+    public GameEnv(long seed) {
+        world = new GameWorld(seed, 0);
+    }
+
+    public void setMaxEpisodeTicks(long ticks) {
+        this.maxEpisodeTicks = ticks;
+    }
+
+    // Start a new episode, ending the current one if it is still going; returns the first observation
+    public float[] reset() {
+        if (world.getGameState() == GameWorld.GameState.PLAYING) world.returnToMenu();
+        while (world.getGameState() != GameWorld.GameState.PLAYING) {
+            world.tick(world.getGameState() == GameWorld.GameState.GAME_OVER ? InputManager.RESTART : InputManager.ENTER);
+        }
+        episodeTicks = 0;
+        lastScore = world.getScore();
+        lastHealth = world.getPlayer().getHealth();
+        done = false;
+        truncated = false;
+        observe(observation, 0);
+        return observation;
+    }
+
+    // Advance one tick under the given action bits and return its reward; the observation array
+    // returned by reset() and getObservation() is updated in place
+    public float step(int action) {
+        float reward = advance(action);
+        observe(observation, 0);
+        return reward;
+    }
+
+    // step() without refreshing this env's own observation array; GameEnvBatch observes into its own
+    float advance(int action) {
+        if (done) throw new IllegalStateException("Episode is over; call reset()");
+        world.tick(action & ACTION_MASK);
+        episodeTicks++;
+
+        int score = world.getScore();
+        int health = world.getPlayer().getHealth();
+        float reward = (score - lastScore) / GameWorld.POINTS_PER_HIT * HIT_REWARD - (lastHealth - health) * DAMAGE_PENALTY;
+        lastScore = score;
+        lastHealth = health;
+
+        if (world.getGameState() == GameWorld.GameState.GAME_OVER) {
+            done = true;
+        } else if (episodeTicks >= maxEpisodeTicks) {
+            done = true;
+            truncated = true;
+        }
+        return reward;
+    }
+
+    // Write the current observation into to[offset .. offset + OBSERVATION_SIZE)
+    public void observe(float[] to, int offset) {
+        Player player = world.getPlayer();
+        float width = GamePanel.WIDTH, height = GamePanel.HEIGHT;
+        int o = offset;
+        to[o++] = player.getX() / width;
+        to[o++] = player.getY() / height;
+        to[o++] = player.getHealth() / (float) Player.MAX_HEALTH;
+        to[o++] = player.canDash() ? 1 : 0;
+        to[o++] = world.getFireCooldownTicks() / (float) GameWorld.FIRE_COOLDOWN_TICKS;
+
+        ProjectilePool projectiles = world.getProjectiles();
+        int shots = 0;
+        for (int slot = 0; slot < projectiles.getCapacity() && shots < PROJECTILE_SLOTS; slot++) {
+            if (!projectiles.isActive(slot)) continue;
+            to[o++] = 1;
+            to[o++] = projectiles.getX(slot) / width;
+            to[o++] = projectiles.getY(slot) / height;
+            shots++;
+        }
+        for (; shots < PROJECTILE_SLOTS; shots++) {
+            to[o++] = 0;
+            to[o++] = 0;
+            to[o++] = 0;
+        }
+
+        List<Obstacle> obstacles = world.getObstacles();
+        int cx = player.getX() + Player.WIDTH / 2, cy = player.getY() + Player.HEIGHT / 2;
+        int found = findNearest(obstacles, cx, cy);
+        for (int k = 0; k < OBSTACLE_SLOTS; k++) {
+            if (k < found) {
+                Obstacle ob = obstacles.get(nearest[k]);
+                to[o++] = 1;
+                to[o++] = (ob.getX() + ob.getSize() / 2 - cx) / width;
+                to[o++] = (ob.getY() + ob.getSize() / 2 - cy) / height;
+                to[o++] = ob.getSize() / (float) Obstacle.WIDTH;
+                to[o++] = ob.getSpeed() / (float) Obstacle.SPEED;
+            } else {
+                for (int f = 0; f < OBSTACLE_FEATURES; f++) to[o++] = 0;
+            }
+        }
+    }
+
+    // Insertion into a short sorted list: one pass over the obstacles, OBSTACLE_SLOTS compares at most each
+    private int findNearest(List<Obstacle> obstacles, int cx, int cy) {
+        int found = 0;
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle ob = obstacles.get(i);
+            long dx = ob.getX() + ob.getSize() / 2 - cx, dy = ob.getY() + ob.getSize() / 2 - cy;
+            long d = dx * dx + dy * dy;
+            if (found == OBSTACLE_SLOTS && d >= nearestDistance[found - 1]) continue;
+            int k = (found < OBSTACLE_SLOTS) ? found++ : found - 1;
+            while (k > 0 && nearestDistance[k - 1] > d) {
+                nearest[k] = nearest[k - 1];
+                nearestDistance[k] = nearestDistance[k - 1];
+                k--;
+            }
+            nearest[k] = i;
+            nearestDistance[k] = d;
+        }
+        return found;
+    }
+
+    public float[] getObservation() { return observation; }
+    public boolean isDone() { return done; }
+    // Done because the tick limit ran out rather than because the ship was destroyed
+    public boolean isTruncated() { return truncated; }
+    public long getEpisodeTicks() { return episodeTicks; }
+    public int getScore() { return world.getScore(); }
+    public GameWorld getWorld() { return world; }
+}
@@ -0,0 +1,85 @@
+package spacegame;
+
+// A fixed set of GameEnvs stepped together: one action per env in, and flat observation,
+// reward and done arrays out (env i's observation starts at i * GameEnv.OBSERVATION_SIZE).
+// An env whose episode ends is reset straight away, so its slot already holds the first
+// observation of the next episode; dones[i] says that happened. With more than one thread
+// the envs are stepped in slices on a ForkJoinPool, each env only ever writing its own slots.
+public class GameEnvBatch {
+
+    // Envs per slice when stepping in parallel; one env step is a microsecond or two
+    private static final int GRAIN = 16;
+
+    private final GameEnv[] envs;
+    private final float[] observations;
+    private final float[] rewards;
+    private final boolean[] dones;
+    private final boolean[] truncated;
+    private final ParallelTick parallel;
+
+    private int[] actions;
+    private final ParallelTick.RangeBody stepRange = this::stepRange;
+
+    // Env i is seeded seed + i
+    public GameEnvBatch(int count, long seed, int threads) {
+        envs = new GameEnv[count];
+        for (int i = 0; i < count; i++) envs[i] = new GameEnv(seed + i);
+        observations = new float[count * GameEnv.OBSERVATION_SIZE];
+        rewards = new float[count];
+        dones = new boolean[count];
+        truncated = new boolean[count];
+        parallel = (threads > 1) ? new ParallelTick(threads) : null;
+    }
+
+    public void setMaxEpisodeTicks(long ticks) {
+        for (GameEnv env : envs) env.setMaxEpisodeTicks(ticks);
+    }
+
+    // Start a fresh episode in every env; returns the observations array
+    public float[] reset() {
+        for (int i = 0; i < envs.length; i++) {
+            envs[i].reset();
+            envs[i].observe(observations, i * GameEnv.OBSERVATION_SIZE);
+            rewards[i] = 0;
+            dones[i] = false;
+            truncated[i] = false;
+        }
+        return observations;
+    }
+
+    // actions[i] goes to env i; results land in getObservations/getRewards/getDones
+    public void step(int[] actions) {
+        if (actions.length != envs.length) {
+            throw new IllegalArgumentException("Expected " + envs.length + " actions, got " + actions.length);
+        }
+        this.actions = actions;
+        if (parallel != null) {
+            parallel.forRange(envs.length, GRAIN, stepRange);
+        } else {
+            stepRange(0, envs.length);
+        }
+        this.actions = null;
+    }
+
+    private void stepRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            GameEnv env = envs[i];
+            rewards[i] = env.advance(actions[i]);
+            dones[i] = env.isDone();
+            truncated[i] = env.isTruncated();
+            if (dones[i]) env.reset();
+            env.observe(observations, i * GameEnv.OBSERVATION_SIZE);
+        }
+    }
+
+    public void close() {
+        if (parallel != null) parallel.close();
+    }
+
+    public int size() { return envs.length; }
+    public GameEnv getEnv(int i) { return envs[i]; }
+    public float[] getObservations() { return observations; }
+    public float[] getRewards() { return rewards; }
+    public boolean[] getDones() { return dones; }
+    public boolean[] getTruncated() { return truncated; }
+}
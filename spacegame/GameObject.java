@@ -5,4 +5,13 @@ import java.awt.Graphics;
 public interface GameObject {
     void update();
     void draw(Graphics g);
+
+    // Draw blended between the previous and current tick; alpha is in [0, 1)
+    default void draw(Graphics g, float alpha) {
+        draw(g);
+    }
+
+    static int lerp(int previous, int current, float alpha) {
+        return Math.round(previous + (current - previous) * alpha);
+    }
 }
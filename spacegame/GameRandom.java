@@ -0,0 +1,50 @@
+package spacegame;
+
+// Small, fast, seedable RNG (xorshift64*). The same seed gives the same sequence on every
+// JVM and platform, which is what makes replays re-simulate bit for bit.
+public class GameRandom {
+
+    private long state;
+
+    public GameRandom(long seed) {
+        // Scramble the seed so small/similar seeds don't start in similar states; state must not be 0
+        state = mix(seed);
+        if (state == 0) state = 0x9E3779B97F4A7C15L;
+    }
+
+    public long nextLong() {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state * 0x2545F4914F6CDD1DL;
+    }
+
+    // Uniform in [0, bound)
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    // Uniform in [0, 1)
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    // Independent generator seeded from this one, so subsystems don't shift each other's sequences
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
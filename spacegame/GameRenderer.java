@@ -0,0 +1,191 @@
+package spacegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Draws one frame from a RenderSnapshot. Shared by the passive (GamePanel) and active (GameCanvas)
+// front ends; it never touches the live world, so it can run beside a simulation thread.
+public class GameRenderer {
+
+    // Visuals, taken from the assets once they have all loaded
+    private final Assets assets;
+    private boolean assetsTaken = false;
+    private BufferedImage shipImage;
+    private SpriteAtlas obstacleSprites;
+    private final HUD hud = new HUD();
+    private final StarLayer stars = new StarLayer(GamePanel.WIDTH, GamePanel.HEIGHT);
+    private final ParticleLayer particles = new ParticleLayer();
+
+    // Menu and game-over text, pre-rendered; the game-over screen is redone when its numbers change
+    private static final int MID = GamePanel.HEIGHT / 2;
+    private final TextScreen menuScreen = new TextScreen(Fonts.SCREEN, Color.WHITE,
+            new int[] { MID - 40, MID, MID + 30, MID + 60, MID + 90 },
+            "STAR FIRE",
+            "Press RETURN to Start",
+            "WASD / Arrows to Move",
+            "W / Up to Shoot",
+            "S / Down + Direction to Rainbow Dash!");
+    private final TextScreen gameOverScreen = new TextScreen(Fonts.SCREEN, Color.WHITE,
+            new int[] { MID - 60, MID - 20, MID + 20, MID + 60 });
+    private int gameOverScore = -1;
+    private long gameOverSeconds = -1;
+    private final TextScreen loadingScreen = new TextScreen(Fonts.SCREEN, Color.WHITE, new int[] { MID });
+    private int loadingShown = -1;
+
+    // Dash trail steps, pre-tinted once per fade level: the hue runs from red towards violet and
+    // the alpha down to nothing as a step ages, so drawing a step is one plain blit
+    private static final int MAX_TRAIL_SHADES = 64;
+    private BufferedImage[] trailSprites = new BufferedImage[0];
+    private int trailSpritesFadeTicks = -1;
+    private Metrics metrics = Metrics.DISABLED;
+    // Set by a QualityGovernor, possibly from another thread; read once per frame
+    private volatile QualityGovernor.Level quality = QualityGovernor.Level.HIGH;
+
+    // Draws a loading screen until the assets are in
+    public GameRenderer(Assets assets) {
+        this.assets = assets;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setQuality(QualityGovernor.Level quality) {
+        this.quality = quality;
+    }
+
+    // Full frame: sky, world, whichever screen the game state calls for, and the HUD on top
+    public void render(Graphics g, RenderSnapshot snapshot, float alpha) {
+        if (!assetsTaken) {
+            if (!assets.isDone()) {
+                drawLoading(g, snapshot);
+                return;
+            }
+            shipImage = assets.getShip();
+            obstacleSprites = assets.getObstacleSprites();
+            assetsTaken = true;
+        }
+        drawScene(g, snapshot, alpha);
+
+        long start = metrics.now();
+        hud.draw(g, snapshot.score, snapshot.health, snapshot.elapsedMillis);
+        if (metrics.isEnabled()) metrics.record(Metrics.Phase.HUD, metrics.now() - start);
+    }
+
+    private void drawScene(Graphics g, RenderSnapshot s, float alpha) {
+        QualityGovernor.Level quality = this.quality;
+        drawStars(g, s, quality);
+
+        if (s.state == GameWorld.GameState.MENU) {
+            drawMenu(g);
+            return;
+        }
+        if (!s.hasPlayer) return;
+
+        drawPlayerAndEffects(g, s, alpha);
+        g.setColor(Color.WHITE);
+        g.fillRect(GameObject.lerp(s.playerPrevX, s.playerX, alpha), s.playerY, Player.WIDTH, Player.HEIGHT);
+        drawOtherShips(g, s, alpha);
+        drawProjectiles(g, s, alpha);
+        drawObstacles(g, s, alpha, quality);
+
+        particles.draw((Graphics2D) g, s.particleX, s.particleY, s.particleLife, s.particleColor, s.particleCount);
+
+        if (s.state == GameWorld.GameState.GAME_OVER) drawGameOver(g, s);
+    }
+
+    // Lower quality draws only the first part of the field; stars are scattered at random, so it just thins out
+    private void drawStars(Graphics g, RenderSnapshot s, QualityGovernor.Level quality) {
+        stars.draw(g, s.starX, s.starY, s.starBrightness, quality.starCount(s.starCount), s.starVersion);
+    }
+
+    private void drawLoading(Graphics g, RenderSnapshot s) {
+        drawStars(g, s, quality);
+        int count = assets.getLoadedCount();
+        if (count != loadingShown) {
+            loadingScreen.setLines("Loading " + count + " / " + assets.getCount());
+            loadingShown = count;
+        }
+        loadingScreen.draw(g);
+    }
+
+    private void drawMenu(Graphics g) {
+        menuScreen.draw(g);
+    }
+
+    private void drawPlayerAndEffects(Graphics g, RenderSnapshot s, float alpha) {
+        if (shipImage == null) return;
+        if (s.trailCount > 0) {
+            if (trailSpritesFadeTicks != s.trailFadeTicks) buildTrailSprites(s.trailFadeTicks);
+            for (int i = 0; i < s.trailCount; i++) {
+                int shade = s.trailAge[i] * trailSprites.length / s.trailFadeTicks;
+                g.drawImage(trailSprites[Math.min(shade, trailSprites.length - 1)], s.trailX[i], s.trailY[i], null);
+            }
+        }
+        g.drawImage(shipImage, GameObject.lerp(s.playerPrevX, s.playerX, alpha), s.playerY, null);
+    }
+
+    // Co-op ships: outlined so the player can tell their own apart
+    private void drawOtherShips(Graphics g, RenderSnapshot s, float alpha) {
+        for (int i = 0; i < s.otherShipCount; i++) {
+            int x = GameObject.lerp(s.otherShipPrevX[i], s.otherShipX[i], alpha);
+            if (shipImage != null) g.drawImage(shipImage, x, s.otherShipY[i], null);
+            g.setColor(Color.CYAN);
+            g.drawRect(x, s.otherShipY[i], Player.WIDTH - 1, Player.HEIGHT - 1);
+        }
+    }
+
+    // One sprite per fade level; short trails get a level per tick of age, long ones share MAX_TRAIL_SHADES
+    private void buildTrailSprites(int fadeTicks) {
+        trailSprites = new BufferedImage[Math.min(fadeTicks, MAX_TRAIL_SHADES)];
+        for (int level = 0; level < trailSprites.length; level++) {
+            float fade = 1.0f - (float) level / trailSprites.length;
+            float hue = (1.0f - fade) * 0.8f;
+            int rgb = Color.HSBtoRGB(hue, 1.0f, 1.0f) & 0xFFFFFF;
+            BufferedImage sprite = SpriteAtlas.createCompatibleImage(Player.WIDTH, Player.HEIGHT);
+            Graphics2D sg = sprite.createGraphics();
+            sg.setComposite(AlphaComposite.Src);
+            sg.setColor(new Color(rgb | (Math.round(fade * 255) << 24), true));
+            sg.fillRect(0, 0, Player.WIDTH, Player.HEIGHT);
+            sg.dispose();
+            trailSprites[level] = sprite;
+        }
+        trailSpritesFadeTicks = fadeTicks;
+    }
+
+    private void drawProjectiles(Graphics g, RenderSnapshot s, float alpha) {
+        g.setColor(Color.GREEN);
+        for (int i = 0; i < s.projectileCount; i++) {
+            g.fillRect(s.projectileX[i], GameObject.lerp(s.projectilePrevY[i], s.projectileY[i], alpha),
+                    ProjectilePool.WIDTH, ProjectilePool.HEIGHT);
+        }
+    }
+
+    // Only sprites drawn at other than their atlas size are scaled, and only those feel the filter
+    private void drawObstacles(Graphics g, RenderSnapshot s, float alpha, QualityGovernor.Level quality) {
+        ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_INTERPOLATION, quality.smoothSprites
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        if (obstacleSprites == null) g.setColor(Color.RED);
+        for (int i = 0; i < s.obstacleCount; i++) {
+            int y = GameObject.lerp(s.obstaclePrevY[i], s.obstacleY[i], alpha);
+            int size = s.obstacleSize[i];
+            if (obstacleSprites != null) {
+                obstacleSprites.draw(g, s.obstacleFrame[i], s.obstacleX[i], y, size, size);
+            } else {
+                g.fillRect(s.obstacleX[i], y, size, size);
+            }
+        }
+    }
+
+    // The final score and time are fixed once the game is over, so this re-renders once per game
+    private void drawGameOver(Graphics g, RenderSnapshot s) {
+        long seconds = s.elapsedMillis / 1000;
+        if (s.score != gameOverScore || seconds != gameOverSeconds) {
+            gameOverScreen.setLines("GAME OVER", "Final Score: " + s.score,
+                    "You survived: " + seconds + " seconds", "Press R to Restart");
+            gameOverScore = s.score;
+            gameOverSeconds = seconds;
+        }
+        gameOverScreen.draw(g);
+    }
+}
@@ -0,0 +1,603 @@
+package spacegame;
+
+import java.util.*;
+import java.util.List;
+
+// All game state and rules, advanced one fixed tick at a time.
+// Nothing in here touches Swing, so a world can be ticked headless as fast as the CPU allows.
+public class GameWorld {
+
+    // Length of one simulation step
+    public static final int TICK_MILLIS = 20;
+
+    public enum GameState { MENU, PLAYING, GAME_OVER }
+
+    // Hooks for side effects the simulation does not own (sound, etc.)
+    public interface Listener {
+        default void onFire() {}
+        default void onPop() {}
+    }
+
+    // Gameplay randomness; stars and particles draw from their own split-off streams
+    private final long seed;
+    private final GameRandom random;
+    private Listener listener = new Listener() {};
+    private Metrics metrics = Metrics.DISABLED;
+
+    private GameState gameState = GameState.MENU;
+
+    // Co-op: up to MAX_PLAYERS ships share one field, each steered by its own input bits.
+    // Ship 0 is the player that single-player code, the HUD and the dash trail follow.
+    public static final int MAX_PLAYERS = 4;
+
+    // Game objects; ships and the shot pool are kept across games and reset, not reallocated.
+    // player is ships[0] while a game is set up, null before the first tick and after a restart.
+    private Player player;
+    private final Player[] ships = new Player[MAX_PLAYERS];
+    private int playerCount = 1;
+    private int requestedPlayers = 1;
+    private ProjectilePool projectiles;
+    private ProjectilePool spareShots;
+    // Obstacles get ids in spawn order, so the obstacle list is always sorted by id
+    private int nextObstacleId = 0;
+    private final EntityManager entities = new EntityManager();
+    private final List<Obstacle> obstacles = entities.view(Obstacle.class);
+    // Obstacles are reused once they leave the world, so a running game stops allocating them;
+    // despawned holds this tick's leavers until the flush has actually removed them
+    private final List<Obstacle> obstaclePool = new ArrayList<>();
+    private final List<Obstacle> despawned = new ArrayList<>();
+    private final CollisionSystem collisions = new CollisionSystem();
+    private final Starfield stars;
+    private final ParticleSystem particles;
+    private DashTrail dashTrail = new DashTrail();
+    private SpawnDirector spawner = SpawnDirector.classic();
+
+    private int score = 0;
+    // God mode for stress runs: hits still destroy obstacles but cost no health
+    private boolean invulnerable = false;
+    // Test ships and shots along the path they moved this tick rather than only where they ended
+    // up, so fast movers can't pass through an obstacle between two ticks. shipSweepX is where
+    // each ship was at the last collision pass; a dash lands after it, so the next pass sweeps it.
+    private boolean sweptCollision = true;
+    private final int[] shipSweepX = new int[MAX_PLAYERS];
+
+    // Set when the tick should spread per-entity work over several threads; null runs it all inline
+    private ParallelTick parallel;
+    // Parallel collision pass: collider boxes for this tick (x, y, w, h at the start of the tick,
+    // then the move dx, dy), and per obstacle a bit per collider that hits it (bit = collider id)
+    // or OFF_SCREEN. Ships and projectile slots share the 63 bits below OFF_SCREEN.
+    private static final long OFF_SCREEN = 1L << 63;
+    private static final int MAX_COLLIDERS = 63;
+    private static final int COLLIDER_INTS = 6;
+    private final int[] colliderBox = new int[COLLIDER_INTS * MAX_COLLIDERS];
+    private final int[] colliderIds = new int[MAX_COLLIDERS];
+    private int colliderCount = 0;
+    private long[] hits = new long[64];
+
+    // Collider ids reported in collision pairs; lower ids win when several hit one obstacle.
+    // Ships use their index, projectiles playerCount + their pool slot.
+
+    // Score for each obstacle shot down
+    public static final int POINTS_PER_HIT = 10;
+
+    // Minimum time between shots, in ticks (500 ms)
+    public static final int FIRE_COOLDOWN_TICKS = 500 / TICK_MILLIS;
+
+    // Time is counted in ticks so it scales with the simulation, not the wall clock
+    private long tick = 0;
+    private long startTick, elapsedTicks;
+
+    // Input state: each ship's InputManager action bits for this tick, and all of them together
+    // (any player can start or restart the game)
+    private final int[] shipInputs = new int[MAX_PLAYERS];
+    private int input = 0;
+    private final int[] fireCooldown = new int[MAX_PLAYERS];
+    private int dashTrailFramesLeft = 0;
+
+    public GameWorld(long seed) {
+        this(seed, Starfield.DEFAULT_STARS);
+    }
+
+    public GameWorld(long seed, int starCount) {
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+        this.stars = new Starfield(starCount, GamePanel.WIDTH, GamePanel.HEIGHT, random.split());
+        this.particles = new ParticleSystem(random.split());
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // Replace the wave schedule; replays assume the classic one
+    public void setSpawnDirector(SpawnDirector spawner) {
+        this.spawner = spawner;
+    }
+
+    public void setInvulnerable(boolean invulnerable) {
+        this.invulnerable = invulnerable;
+    }
+
+    // Swept collision is the default; false goes back to testing end-of-tick positions only
+    public void setSweptCollision(boolean swept) {
+        this.sweptCollision = swept;
+    }
+
+    public boolean isSweptCollision() {
+        return sweptCollision;
+    }
+
+    // Spread movement, culling/collision tests and particle integration over this many threads;
+    // 1 or less runs the tick sequentially. Either way the world evolves identically.
+    public void setParallelism(int threads) {
+        if (parallel != null) parallel.close();
+        parallel = (threads > 1) ? new ParallelTick(threads) : null;
+    }
+
+    public int getParallelism() {
+        return (parallel != null) ? parallel.getThreads() : 1;
+    }
+
+    // Steps laid per dash and how many ticks each takes to fade; purely visual
+    public void setDashTrail(int steps, int fadeTicks) {
+        dashTrail = new DashTrail(steps, fadeTicks);
+        dashTrailFramesLeft = Math.min(dashTrailFramesLeft, steps);
+    }
+
+    // Ships in each game from the next one set up on; 1 is the ordinary single-player game
+    public void setPlayerCount(int players) {
+        requestedPlayers = Math.max(1, Math.min(MAX_PLAYERS, players));
+    }
+
+    // Advance the whole world by exactly one tick, given that tick's input action bits
+    public void tick(int input) {
+        shipInputs[0] = input;
+        for (int i = 1; i < MAX_PLAYERS; i++) shipInputs[i] = 0;
+        advance();
+    }
+
+    // Co-op tick: inputs[i] steers ship i; missing entries count as no keys
+    public void tick(int[] inputs) {
+        for (int i = 0; i < MAX_PLAYERS; i++) shipInputs[i] = (i < inputs.length) ? inputs[i] : 0;
+        advance();
+    }
+
+    private void advance() {
+        input = 0;
+        for (int i = 0; i < MAX_PLAYERS; i++) input |= shipInputs[i];
+        tick++;
+
+        long t = metrics.now();
+        stars.update();
+        t = metrics.lap(Metrics.Phase.STARS, t);
+
+        if (player == null || projectiles == null) {
+            initializeGameObjects();
+            return;
+        }
+
+        if (gameState == GameState.MENU && isPressed(InputManager.ENTER)) {
+            initializeGameObjects();
+            startTick = tick;
+            gameState = GameState.PLAYING;
+        }
+
+        if (gameState == GameState.GAME_OVER && isPressed(InputManager.RESTART)) {
+            returnToMenu();
+            return;
+        }
+
+        for (int i = 0; i < playerCount; i++) {
+            if (fireCooldown[i] > 0) fireCooldown[i]--;
+        }
+
+        // Every live object, obstacles included, is updated exactly once per tick
+        if (parallel != null) {
+            parallel.forRange(entities.size(), updateEntities);
+        } else {
+            List<GameObject> all = entities.all();
+            for (int i = 0; i < all.size(); i++) {
+                all.get(i).update();
+            }
+        }
+        t = metrics.lap(Metrics.Phase.OBSTACLES, t);
+
+        dashTrail.expire(tick);
+        if (dashTrailFramesLeft > 0) {
+            dashTrail.add(player.getX(), player.getY(), tick);
+            dashTrailFramesLeft--;
+        }
+        // The trail is dash work, so it counts towards INPUT along with the move below
+        t = metrics.lap(Metrics.Phase.INPUT, t);
+
+        handleInput();
+        t = metrics.lap(Metrics.Phase.INPUT, t);
+        if (parallel != null) {
+            updateObstaclesParallel();
+        } else {
+            updateObstacles();
+        }
+        t = metrics.lap(Metrics.Phase.OBSTACLES, t);
+        if (parallel != null) {
+            particles.update(parallel);
+        } else {
+            particles.update();
+        }
+        t = metrics.lap(Metrics.Phase.EXPLOSIONS, t);
+        spawner.update(this, random);
+        t = metrics.lap(Metrics.Phase.SPAWN, t);
+
+        // Fire projectiles, ship by ship
+        for (int i = 0; i < playerCount; i++) {
+            if (!isOut(i) && isPressed(i, InputManager.FIRE)) fireProjectileIfPossible(i);
+        }
+
+        // Dash input; only the player's dash leaves a trail
+        for (int i = 0; i < playerCount; i++) {
+            if (!isOut(i) && dashShip(ships[i], shipInputs[i]) && i == 0) {
+                dashTrailFramesLeft = dashTrail.getSteps();
+            }
+        }
+        t = metrics.lap(Metrics.Phase.INPUT, t);
+
+        entities.flush();
+        for (int i = 0; i < despawned.size(); i++) obstaclePool.add(despawned.get(i));
+        despawned.clear();
+        metrics.lap(Metrics.Phase.FLUSH, t);
+    }
+
+    // Drop the current game, whatever state it is in; the next tick sets up a fresh one on the menu.
+    // RESTART does this from the game-over screen; tools that end episodes early call it directly.
+    public void returnToMenu() {
+        if (projectiles != null) spareShots = projectiles;
+        player = null;
+        projectiles = null;
+        clearEntities();
+        particles.clear();
+        score = 0;
+        elapsedTicks = 0;
+        gameState = GameState.MENU;
+    }
+
+    private void initializeGameObjects() {
+        // Ships spread evenly along the bottom; a lone ship starts in the middle as it always has
+        playerCount = requestedPlayers;
+        for (int i = 0; i < playerCount; i++) {
+            if (ships[i] == null) ships[i] = new Player(0, 0);
+            ships[i].reset(GamePanel.WIDTH * (i + 1) / (playerCount + 1) - Player.WIDTH / 2,
+                    GamePanel.HEIGHT - Player.HEIGHT - 20);
+            shipSweepX[i] = ships[i].getX();
+            fireCooldown[i] = 0;
+        }
+        player = ships[0];
+
+        if (projectiles == null) projectiles = (spareShots != null) ? spareShots : new ProjectilePool();
+        projectiles.clear();
+        particles.clear();
+        clearEntities();
+
+        entities.spawn(player);
+        entities.spawn(projectiles);
+        for (int i = 1; i < playerCount; i++) entities.spawn(ships[i]);
+        entities.flush();
+        spawner.reset();
+        score = 0;
+    }
+
+    // Everything leaves the world; live obstacles go back to the pool (queued spawns are just dropped)
+    private void clearEntities() {
+        obstaclePool.addAll(obstacles);
+        despawned.clear();
+        entities.clear();
+    }
+
+    private void despawn(Obstacle o) {
+        entities.despawn(o);
+        despawned.add(o);
+    }
+
+    // Any player's keys
+    private boolean isPressed(int action) {
+        return (input & action) != 0;
+    }
+
+    private boolean isPressed(int ship, int action) {
+        return (shipInputs[ship] & action) != 0;
+    }
+
+    // In co-op a ship that runs out of health sits out the rest of the game; a lone ship keeps
+    // playing on the game-over screen as it always has
+    private boolean isOut(int ship) {
+        return playerCount > 1 && ships[ship].getHealth() <= 0;
+    }
+
+    private boolean allShipsDown() {
+        for (int i = 0; i < playerCount; i++) {
+            if (ships[i].getHealth() > 0) return false;
+        }
+        return true;
+    }
+
+    private void handleInput() {
+        for (int i = 0; i < playerCount; i++) {
+            if (!isOut(i)) moveShip(ships[i], shipInputs[i]);
+        }
+    }
+
+    // Ship steering rules, shared with network clients that predict their own ship
+    static void moveShip(Player ship, int input) {
+        if ((input & InputManager.LEFT) != 0) ship.moveLeft();
+        if ((input & InputManager.RIGHT) != 0) ship.moveRight(GamePanel.WIDTH);
+    }
+
+    // Dash if DASH is held and the ship can; true if it did
+    static boolean dashShip(Player ship, int input) {
+        if ((input & InputManager.DASH) == 0 || !ship.canDash()) return false;
+        if ((input & InputManager.LEFT) != 0) ship.dashLeft();
+        if ((input & InputManager.RIGHT) != 0) ship.dashRight(GamePanel.WIDTH);
+        return true;
+    }
+
+    // Obstacles have already moved this tick; resolve culling and collisions
+    private void updateObstacles() {
+        collisions.build(obstacles);
+        for (int i = 0; i < playerCount; i++) {
+            if (isOut(i)) continue;
+            Player ship = ships[i];
+            if (sweptCollision) {
+                collisions.collideSwept(i, shipSweepX[i], ship.getY(), Player.WIDTH, Player.HEIGHT,
+                        ship.getX() - shipSweepX[i], 0);
+            } else {
+                collisions.collide(i, ship.getX(), ship.getY(), Player.WIDTH, Player.HEIGHT);
+            }
+        }
+        for (int slot = 0; slot < projectiles.getCapacity(); slot++) {
+            if (!projectiles.isActive(slot)) continue;
+            int x = projectiles.getX(slot), y = projectiles.getY(slot), prevY = projectiles.getPrevY(slot);
+            if (sweptCollision) {
+                collisions.collideSwept(playerCount + slot, x, prevY, ProjectilePool.WIDTH, ProjectilePool.HEIGHT, 0, y - prevY);
+            } else {
+                collisions.collide(playerCount + slot, x, y, ProjectilePool.WIDTH, ProjectilePool.HEIGHT);
+            }
+        }
+        collisions.sortPairs();
+        markShipSweeps();
+
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle o = obstacles.get(i);
+            if (o.isOffScreen(GamePanel.HEIGHT)) despawn(o);
+        }
+
+        // Pairs arrive in obstacle order, so this resolves hits exactly like a linear scan would
+        int resolved = -1;
+        for (int p = 0; p < collisions.getPairCount(); p++) {
+            int i = collisions.getPairObstacle(p);
+            Obstacle o = obstacles.get(i);
+            if (i == resolved || o.isOffScreen(GamePanel.HEIGHT)) continue;
+            if (resolveHit(o, collisions.getPairCollider(p))) resolved = i;
+        }
+    }
+
+    // Same outcome as updateObstacles(), but every obstacle is tested against the handful of
+    // colliders on the pool; hits are then resolved on this thread in obstacle order, so
+    // explosions, score and projectile use come out exactly as in the sequential pass
+    private void updateObstaclesParallel() {
+        if (playerCount + projectiles.getCapacity() > MAX_COLLIDERS) {
+            throw new IllegalStateException("Parallel collision supports " + MAX_COLLIDERS + " ships and projectile slots, got "
+                    + playerCount + " + " + projectiles.getCapacity());
+        }
+        colliderCount = 0;
+        for (int i = 0; i < playerCount; i++) {
+            if (isOut(i)) continue;
+            Player ship = ships[i];
+            if (sweptCollision) {
+                addCollider(i, shipSweepX[i], ship.getY(), Player.WIDTH, Player.HEIGHT, ship.getX() - shipSweepX[i], 0);
+            } else {
+                addCollider(i, ship.getX(), ship.getY(), Player.WIDTH, Player.HEIGHT, 0, 0);
+            }
+        }
+        for (int slot = 0; slot < projectiles.getCapacity(); slot++) {
+            if (!projectiles.isActive(slot)) continue;
+            int x = projectiles.getX(slot), y = projectiles.getY(slot), prevY = projectiles.getPrevY(slot);
+            if (sweptCollision) {
+                addCollider(playerCount + slot, x, prevY, ProjectilePool.WIDTH, ProjectilePool.HEIGHT, 0, y - prevY);
+            } else {
+                addCollider(playerCount + slot, x, y, ProjectilePool.WIDTH, ProjectilePool.HEIGHT, 0, 0);
+            }
+        }
+        markShipSweeps();
+
+        int n = obstacles.size();
+        if (n > hits.length) hits = new long[Math.max(n, hits.length * 2)];
+        parallel.forRange(n, testObstacles);
+
+        for (int i = 0; i < n; i++) {
+            long mask = hits[i];
+            if (mask == 0) continue;
+            Obstacle o = obstacles.get(i);
+            if (mask == OFF_SCREEN) {
+                despawn(o);
+                continue;
+            }
+            // Lowest collider id first, as the sorted pairs would have it
+            for (long m = mask; m != 0; m &= m - 1) {
+                if (resolveHit(o, Long.numberOfTrailingZeros(m))) break;
+            }
+        }
+    }
+
+    private void addCollider(int id, int x, int y, int w, int h, int dx, int dy) {
+        colliderIds[colliderCount] = id;
+        int b = COLLIDER_INTS * colliderCount++;
+        colliderBox[b] = x;
+        colliderBox[b + 1] = y;
+        colliderBox[b + 2] = w;
+        colliderBox[b + 3] = h;
+        colliderBox[b + 4] = dx;
+        colliderBox[b + 5] = dy;
+    }
+
+    // The next collision pass sweeps each ship from where it stands now
+    private void markShipSweeps() {
+        for (int i = 0; i < playerCount; i++) shipSweepX[i] = ships[i].getX();
+    }
+
+    private final ParallelTick.RangeBody updateEntities = (from, to) -> {
+        List<GameObject> all = entities.all();
+        for (int i = from; i < to; i++) {
+            all.get(i).update();
+        }
+    };
+
+    private final ParallelTick.RangeBody testObstacles = (from, to) -> {
+        for (int i = from; i < to; i++) {
+            Obstacle o = obstacles.get(i);
+            if (o.isOffScreen(GamePanel.HEIGHT)) {
+                hits[i] = OFF_SCREEN;
+                continue;
+            }
+            int x = o.getX(), y = o.getY(), prevY = o.getPrevY(), size = o.getSize();
+            long mask = 0;
+            for (int c = 0; c < colliderCount; c++) {
+                int b = COLLIDER_INTS * c;
+                boolean hit = sweptCollision
+                        ? CollisionSystem.sweptOverlaps(colliderBox[b], colliderBox[b + 1], colliderBox[b + 2], colliderBox[b + 3],
+                                colliderBox[b + 4], colliderBox[b + 5], x, prevY, size, size, 0, y - prevY)
+                        : CollisionSystem.overlaps(colliderBox[b], colliderBox[b + 1], colliderBox[b + 2], colliderBox[b + 3],
+                                x, y, size, size);
+                if (hit) mask |= 1L << colliderIds[c];
+            }
+            hits[i] = mask;
+        }
+    };
+
+    // Apply one obstacle/collider hit; false if the collider was a projectile already spent this tick
+    private boolean resolveHit(Obstacle o, int collider) {
+        if (collider < playerCount) {
+            Player ship = ships[collider];
+            particles.spawnExplosion(ship.getX() + Player.WIDTH / 2, ship.getY() + Player.HEIGHT / 2);
+            if (!invulnerable) ship.takeDamage();
+            if (allShipsDown()) {
+                elapsedTicks = tick - startTick;
+                gameState = GameState.GAME_OVER;
+            }
+            despawn(o);
+            return true;
+        }
+        int slot = collider - playerCount;
+        if (projectiles.isActive(slot)) {
+            particles.spawnExplosion(o.getX(), o.getY());
+            projectiles.hide(slot);
+            despawn(o);
+            listener.onPop();
+            score += POINTS_PER_HIT;
+            return true;
+        }
+        return false;
+    }
+
+    // Place an obstacle directly, for benchmarks and tools; it joins the world at the end of the next tick
+    public void spawnObstacle(int x, int y) {
+        spawnObstacle(x, y, Obstacle.SPEED, Obstacle.WIDTH);
+    }
+
+    public void spawnObstacle(int x, int y, int speed, int size) {
+        int frame = random.nextInt(Obstacle.FRAME_COUNT);
+        Obstacle o;
+        if (obstaclePool.isEmpty()) {
+            o = new Obstacle(x, y, frame, speed, size);
+        } else {
+            o = obstaclePool.remove(obstaclePool.size() - 1);
+            o.reset(x, y, frame, speed, size);
+        }
+        o.assignId(++nextObstacleId);
+        entities.spawn(o);
+    }
+
+    // Cooldown is counted down in ticks, so it stays correct however fast the world runs
+    private void fireProjectileIfPossible(int i) {
+        if (fireCooldown[i] == 0) {
+            Player ship = ships[i];
+            int slot = projectiles.fire(ship.getX() + Player.WIDTH / 2 - ProjectilePool.WIDTH / 2, ship.getY());
+            if (slot < 0) return;
+            listener.onFire();
+            fireCooldown[i] = FIRE_COOLDOWN_TICKS;
+        }
+    }
+
+    // Accessors used by the renderer and HUD
+    public GameState getGameState() { return gameState; }
+    public Player getPlayer() { return player; }
+    public ProjectilePool getProjectiles() { return projectiles; }
+    public List<GameObject> getGameObjects() { return entities.all(); }
+    public List<Obstacle> getObstacles() { return obstacles; }
+    public Starfield getStars() { return stars; }
+    public ParticleSystem getParticles() { return particles; }
+    public DashTrail getDashTrail() { return dashTrail; }
+    public int getScore() { return score; }
+    public long getTick() { return tick; }
+    public long getSeed() { return seed; }
+    public int getStarCount() { return stars.getCount(); }
+    public SpawnDirector getSpawnDirector() { return spawner; }
+    public boolean isInvulnerable() { return invulnerable; }
+    public int getFireCooldownTicks() { return fireCooldown[0]; }
+    // Ships in the current game, and ship i of them (0 is getPlayer())
+    public int getPlayerCount() { return playerCount; }
+    public Player getShip(int i) { return (player != null && i < playerCount) ? ships[i] : null; }
+
+    public long getElapsedMillis() {
+        long ticks = (gameState == GameState.PLAYING) ? tick - startTick : elapsedTicks;
+        return ticks * TICK_MILLIS;
+    }
+
+    // Hash of everything that decides how the game plays out; equal checksums after the same
+    // inputs mean two runs stayed in lockstep
+    public long checksum() {
+        long h = mix(0, tick);
+        h = mix(h, gameState.ordinal());
+        h = mix(h, score);
+        h = mix(h, random.getState());
+        h = mix(h, fireCooldown[0]);
+        if (player != null) {
+            h = mix(h, player.getX());
+            h = mix(h, player.getY());
+            h = mix(h, player.getHealth());
+            for (int i = 1; i < playerCount; i++) {
+                h = mix(h, ships[i].getX());
+                h = mix(h, ships[i].getY());
+                h = mix(h, ships[i].getHealth());
+                h = mix(h, fireCooldown[i]);
+            }
+        }
+        if (projectiles != null) {
+            for (int slot = 0; slot < projectiles.getCapacity(); slot++) {
+                if (!projectiles.isActive(slot)) continue;
+                h = mix(h, slot);
+                h = mix(h, projectiles.getX(slot));
+                h = mix(h, projectiles.getY(slot));
+            }
+        }
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle o = obstacles.get(i);
+            h = mix(h, o.getX());
+            h = mix(h, o.getY());
+            h = mix(h, o.getFrame());
+            h = mix(h, o.getSpeed());
+            h = mix(h, o.getSize());
+        }
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        h ^= v + 0x9E3779B97F4A7C15L + (h << 6) + (h >>> 2);
+        return h * 0xFF51AFD7ED558CCDL;
+    }
+}
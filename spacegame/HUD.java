@@ -1,29 +1,95 @@
 package spacegame;
 
-import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
+// Score / health / time strip in the top-left corner, drawn as part of the game frame.
+// Every piece of text it can show (labels, digits, heart) is rendered to an image once;
+// the strip itself is only re-composed when one of the three numbers changes, and is
+// otherwise a single blit. Nothing is allocated per frame.
 public class HUD {
-    private final JLabel label;
+
+    private static final int X = 10, Y = 10, WIDTH = 300, HEIGHT = 20;
+    private static final Color TEXT = Color.GREEN;
+    private static final Color BACKGROUND = Color.BLACK;
+
+    // Pre-rendered glyph runs
+    private final Glyph score, health, time, secondsSuffix, heart;
+    private final Glyph[] digits = new Glyph[10];
+    private final int[] digitScratch = new int[20];
+
+    // The composed strip and the values it currently shows
+    private final BufferedImage strip = SpriteAtlas.createCompatibleImage(WIDTH, HEIGHT);
+    private int shownScore = -1, shownHealth = -1;
+    private long shownSeconds = -1;
 
     public HUD() {
-        label = new JLabel();
-        label.setForeground(Color.GREEN);
-        label.setOpaque(true);
-        label.setBackground(Color.BLACK);
-        label.setFont(new Font("Dialog", Font.PLAIN, 14));
-        label.setBounds(10, 10, 300, 20);
+        FontMetrics fm = Fonts.metrics(Fonts.HUD);
+        score = new Glyph("Score: ", fm);
+        health = new Glyph("    Health: ", fm);
+        time = new Glyph("    Time: ", fm);
+        secondsSuffix = new Glyph("s", fm);
+        heart = new Glyph("\u2665", fm);
+        for (int d = 0; d < 10; d++) digits[d] = new Glyph(String.valueOf(d), fm);
+    }
+
+    public void draw(Graphics g, int score, int health, long elapsedTimeMillis) {
+        long seconds = elapsedTimeMillis / 1000;
+        if (score != shownScore || health != shownHealth || seconds != shownSeconds) {
+            compose(score, health, seconds);
+            shownScore = score;
+            shownHealth = health;
+            shownSeconds = seconds;
+        }
+        g.drawImage(strip, X, Y, null);
     }
 
-    public JLabel getLabel() {
-        return label;
+    // Lay the glyph runs out left to right: "Score: N    Health: ♥♥♥    Time: Ns"
+    private void compose(int scoreValue, int healthValue, long seconds) {
+        Graphics2D g = strip.createGraphics();
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        int x = 0;
+        x = score.draw(g, x);
+        x = drawNumber(g, x, scoreValue);
+        x = health.draw(g, x);
+        for (int i = 0; i < healthValue; i++) x = heart.draw(g, x);
+        x = time.draw(g, x);
+        x = drawNumber(g, x, seconds);
+        secondsSuffix.draw(g, x);
+        g.dispose();
     }
 
-    public void update(int score, int health, long elapsedTimeMillis) {
-        StringBuilder hearts = new StringBuilder();
-        for (int i = 0; i < health; i++) hearts.append("\u2665");
+    private int drawNumber(Graphics2D g, int x, long value) {
+        if (value < 0) value = 0;
+        int n = 0;
+        do {
+            digitScratch[n++] = (int) (value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (n > 0) x = digits[digitScratch[--n]].draw(g, x);
+        return x;
+    }
 
-        long seconds = elapsedTimeMillis / 1000;
-        label.setText("Score: " + score + "    Health: " + hearts + "    Time: " + seconds + "s");
+    // One string rendered once into its own image, drawn at the strip's baseline
+    private static class Glyph {
+        final BufferedImage image;
+        final int advance;
+
+        Glyph(String text, FontMetrics fm) {
+            advance = fm.stringWidth(text);
+            image = SpriteAtlas.createCompatibleImage(Math.max(advance, 1), HEIGHT);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(fm.getFont());
+            g.setColor(TEXT);
+            g.drawString(text, 0, (HEIGHT - fm.getHeight()) / 2 + fm.getAscent());
+            g.dispose();
+        }
+
+        int draw(Graphics g, int x) {
+            g.drawImage(image, x, 0, null);
+            return x + advance;
+        }
     }
 }
@@ -0,0 +1,102 @@
+package spacegame;
+
+// Headless soak check: plays a world for a large number of ticks with no display and fails if
+// the live entity count or the retained heap keeps growing. A seeded bot supplies the input: it
+// starts and restarts games and mashes movement, fire and dash in between, so shots, hits,
+// deaths and restarts all stay in the loop.
+// Runs as part of mvn test, with a shorter run than the default.
+// Usage: java -Djava.awt.headless=true spacegame.HeadlessSoak [ticks]
+public class HeadlessSoak {
+
+    private static final int MAX_LIVE_ENTITIES = 200;
+    private static final long MAX_HEAP_GROWTH_BYTES = 16L * 1024 * 1024;
+    private static final long WARMUP_TICKS = 10_000;
+
+    // The bot holds each random set of keys this many ticks
+    private static final int HOLD_TICKS = 8;
+    private static final int PLAY_KEYS = InputManager.LEFT | InputManager.RIGHT | InputManager.FIRE | InputManager.DASH;
+
+    public static void main(String[] args) {
+        long ticks = (args.length > 0) ? Long.parseLong(args[0]) : 1_000_000L;
+
+        GameWorld world = new GameWorld(1L);
+        long[] shots = new long[1], pops = new long[1];
+        world.setListener(new GameWorld.Listener() {
+            @Override
+            public void onFire() { shots[0]++; }
+
+            @Override
+            public void onPop() { pops[0]++; }
+        });
+        Simulation simulation = new Simulation(world, bot(world, 7L));
+
+        simulation.runTicks(WARMUP_TICKS);
+        long baselineHeap = usedHeapAfterGc();
+        shots[0] = 0;
+        pops[0] = 0;
+
+        int peakEntities = 0;
+        long games = 0;
+        GameWorld.GameState lastState = world.getGameState();
+        long checkEvery = Math.max(1, ticks / 10);
+        long start = System.nanoTime();
+        for (long t = 1; t <= ticks; t++) {
+            simulation.step();
+            peakEntities = Math.max(peakEntities, world.getGameObjects().size());
+            GameWorld.GameState state = world.getGameState();
+            if (state == GameWorld.GameState.GAME_OVER && lastState != state) games++;
+            lastState = state;
+            if (t % checkEvery == 0) {
+                System.out.printf("tick %,d: %d live entities, %,d games over, %,d KB heap%n",
+                        t, world.getGameObjects().size(), games, usedHeapAfterGc() / 1024);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long heapGrowth = usedHeapAfterGc() - baselineHeap;
+
+        System.out.printf("%,d ticks in %.2fs (%,.0f ticks/s), peak entities %d, heap growth %,d KB%n",
+                ticks, seconds, ticks / seconds, peakEntities, heapGrowth / 1024);
+        System.out.printf("%,d shots, %,d obstacles shot down, %,d games over%n", shots[0], pops[0], games);
+
+        if (peakEntities > MAX_LIVE_ENTITIES) {
+            fail("live entity count reached " + peakEntities);
+        }
+        if (heapGrowth > MAX_HEAP_GROWTH_BYTES) {
+            fail("retained heap grew by " + heapGrowth + " bytes");
+        }
+        // A soak that never fires, hits or restarts proves nothing about those paths
+        if (shots[0] == 0 || pops[0] == 0 || games == 0) {
+            fail("the run never fired, hit anything or ended a game");
+        }
+        System.out.println("OK");
+    }
+
+    // Seeded stand-in for a player: ENTER on the menu, R on the game-over screen, and random
+    // movement, fire and dash keys in play. DeterminismCheck records and replays the same bot.
+    static InputSource bot(GameWorld world, long seed) {
+        GameRandom random = new GameRandom(seed);
+        int[] keys = new int[1];
+        long[] ticks = new long[1];
+        return () -> {
+            long tick = ticks[0]++;
+            switch (world.getGameState()) {
+                case MENU: return InputManager.ENTER;
+                case GAME_OVER: return InputManager.RESTART;
+                default: break;
+            }
+            if (tick % HOLD_TICKS == 0) keys[0] = random.nextInt(PLAY_KEYS + 1) & PLAY_KEYS;
+            return keys[0];
+        };
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void fail(String reason) {
+        System.err.println("FAIL: " + reason);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,68 @@
+package spacegame;
+
+import java.util.Arrays;
+
+// Log-linear histogram of non-negative longs (nanoseconds, bytes), in the spirit of HdrHistogram:
+// each power of two is split into SUB_BUCKETS equal slices, so any recorded value is reported
+// within about 1/SUB_BUCKETS of its true size. Recording is a few shifts and one array increment.
+// Counts are read without locking, so a concurrent reader may see a sample or two in flight.
+public class Histogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Values below SUB_BUCKETS get an exact bucket each; above, 64 - SUB_BITS octaves of SUB_BUCKETS
+    private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count, sum, max;
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    // Smallest recorded value v such that at least fraction p (0..1) of samples are <= v, approximately
+    public long percentile(double p) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    public long getCount() { return count; }
+    public long getMax() { return max; }
+
+    public double getMean() {
+        return (count == 0) ? 0 : (double) sum / count;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int octave = 63 - Long.numberOfLeadingZeros(value);          // >= SUB_BITS
+        int slice = (int) (value >>> (octave - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (octave - SUB_BITS) * SUB_BUCKETS + slice;
+    }
+
+    // Largest value that maps to bucket i
+    private static long upperBound(int i) {
+        if (i < SUB_BUCKETS) return i;
+        int octave = (i - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        long slice = (i - SUB_BUCKETS) % SUB_BUCKETS;
+        long base = (1L << octave) + (slice << (octave - SUB_BITS));
+        return base + (1L << (octave - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,73 @@
+package spacegame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Single-producer, single-consumer ring buffer of timestamped input events.
+// The AWT thread offers key transitions as they happen; the simulation drains them at the
+// start of each tick. Each side only ever advances its own counter, so neither locks and a
+// slot is never read before the ordered write of the tail that publishes it.
+public class InputEventQueue {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // An event is an action bit plus whether it was pressed or released
+    public static final int RELEASED = 0;
+    public static final int PRESSED = 1 << 31;
+
+    private final int mask;
+    private final int[] events;
+    private final long[] times;
+
+    // Total events ever offered/taken; slot = count & mask
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private volatile long dropped;
+
+    public InputEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // capacity is rounded up to a power of two
+    public InputEventQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        events = new int[size];
+        times = new long[size];
+    }
+
+    // Producer: queue an event stamped with its System.nanoTime; false (and counted) if full
+    public boolean offer(int event, long nanos) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) (t & mask);
+        events[slot] = event;
+        times[slot] = nanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Consumer: number of events waiting; read them with eventAt/timeAt, then release them with skip
+    public int available() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int eventAt(int i) {
+        return events[(int) ((head.get() + i) & mask)];
+    }
+
+    public long timeAt(int i) {
+        return times[(int) ((head.get() + i) & mask)];
+    }
+
+    public void skip(int count) {
+        head.lazySet(head.get() + count);
+    }
+
+    // Events lost to a full queue since startup
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -2,53 +2,173 @@ package spacegame;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
-public class InputManager implements KeyListener {
-    private boolean leftPressed = false;
-    private boolean rightPressed = false;
-    private boolean firePressed = false;
-    private boolean dashPressed = false;
-    private boolean enterPressed = false;
-    private boolean restartPressed = false;
+// Keyboard input for the simulation.
+// Key transitions are mapped to actions through rebindable bindings, stamped with the time the
+// key went down and queued on the AWT thread; each poll drains the queue on whichever thread
+// runs the tick. A press and release that both land between two ticks still count for one tick,
+// and ENTER and RESTART only fire on the tick their key went down, however long it is held.
+public class InputManager implements KeyListener, InputSource {
+
+    // Action bits as passed to GameWorld.tick and stored in replays
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int FIRE = 1 << 2;
+    public static final int DASH = 1 << 3;
+    public static final int ENTER = 1 << 4;
+    public static final int RESTART = 1 << 5;
+
+    // Names used in bindings files, indexed by action bit
+    private static final String[] ACTION_NAMES = { "left", "right", "fire", "dash", "enter", "restart" };
+
+    // Actions that count on the press only, never while held
+    private static final int EDGE_ACTIONS = ENTER | RESTART;
+
+    private final InputEventQueue queue = new InputEventQueue();
+
+    // AWT thread: key code -> action bit, keys currently down, and how many keys hold each action
+    private final Map<Integer, Integer> bindings = new HashMap<>();
+    private final Set<Integer> keysDown = new HashSet<>();
+    private final int[] keysHolding = new int[ACTION_NAMES.length];
+
+    // Polling thread: actions held as of the last poll, and the oldest press that poll took
+    private int held = 0;
+    private long pollEventNanos = 0;
+
+    // UI toggles that never reach the simulation
+    private volatile boolean debugOverlayVisible = false;
+
+    public InputManager() {
+        bind(KeyEvent.VK_LEFT, LEFT);
+        bind(KeyEvent.VK_A, LEFT);
+        bind(KeyEvent.VK_RIGHT, RIGHT);
+        bind(KeyEvent.VK_D, RIGHT);
+        bind(KeyEvent.VK_UP, FIRE);
+        bind(KeyEvent.VK_W, FIRE);
+        bind(KeyEvent.VK_DOWN, DASH);
+        bind(KeyEvent.VK_S, DASH);
+        bind(KeyEvent.VK_ENTER, ENTER);
+        bind(KeyEvent.VK_R, RESTART);
+    }
+
+    // Bindings change on the AWT thread's side, so set them up before the window is shown
+    public void bind(int keyCode, int action) {
+        bindings.put(keyCode, action);
+    }
+
+    public void unbindAction(int action) {
+        bindings.values().removeIf(a -> a == action);
+    }
+
+    // Properties file of action = comma-separated KeyEvent key names without the VK_ prefix, e.g.
+    //   fire = UP, W, SPACE
+    // Actions the file doesn't mention keep their keys.
+    public void loadBindings(Path path) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(path)) {
+            props.load(in);
+        }
+        // Resolve every key name before touching the live bindings, so a bad file changes nothing
+        Map<Integer, Integer> loaded = new HashMap<>();
+        int rebound = 0;
+        for (int bit = 0; bit < ACTION_NAMES.length; bit++) {
+            String keys = props.getProperty(ACTION_NAMES[bit]);
+            if (keys == null) continue;
+            rebound |= 1 << bit;
+            for (String key : keys.split(",")) {
+                if (!key.isBlank()) loaded.put(keyCodeNamed(key.trim()), 1 << bit);
+            }
+        }
+        for (int bit = 0; bit < ACTION_NAMES.length; bit++) {
+            if ((rebound & (1 << bit)) != 0) unbindAction(1 << bit);
+        }
+        bindings.putAll(loaded);
+        for (String name : props.stringPropertyNames()) {
+            if (!Arrays.asList(ACTION_NAMES).contains(name)) {
+                System.err.println(path + ": ignoring unknown action " + name);
+            }
+        }
+    }
+
+    private static int keyCodeNamed(String name) {
+        try {
+            return KeyEvent.class.getField("VK_" + name.toUpperCase()).getInt(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Unknown key name: " + name);
+        }
+    }
 
     @Override
     public void keyPressed(KeyEvent e) {
-        switch (e.getKeyCode()) {
-            case KeyEvent.VK_LEFT, KeyEvent.VK_A -> leftPressed = true;
-            case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> rightPressed = true;
-            case KeyEvent.VK_UP, KeyEvent.VK_W -> firePressed = true;
-            case KeyEvent.VK_DOWN, KeyEvent.VK_S -> dashPressed = true;
-            case KeyEvent.VK_ENTER -> enterPressed = true;
-            case KeyEvent.VK_R -> restartPressed = true;
+        if (e.getKeyCode() == KeyEvent.VK_F3) {
+            debugOverlayVisible = !debugOverlayVisible;
+            return;
+        }
+        Integer action = bindings.get(e.getKeyCode());
+        // Held keys auto-repeat keyPressed; only the first one is a transition
+        if (action == null || !keysDown.add(e.getKeyCode())) return;
+        if (keysHolding[Integer.numberOfTrailingZeros(action)]++ == 0) {
+            queue.offer(action | InputEventQueue.PRESSED, eventNanos(e));
         }
     }
 
     @Override
     public void keyReleased(KeyEvent e) {
-        switch (e.getKeyCode()) {
-            case KeyEvent.VK_LEFT, KeyEvent.VK_A -> leftPressed = false;
-            case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> rightPressed = false;
-            case KeyEvent.VK_UP, KeyEvent.VK_W -> firePressed = false;
-            case KeyEvent.VK_DOWN, KeyEvent.VK_S -> dashPressed = false;
-            case KeyEvent.VK_ENTER -> enterPressed = false;
-            case KeyEvent.VK_R -> restartPressed = false;
+        Integer action = bindings.get(e.getKeyCode());
+        if (action == null || !keysDown.remove(e.getKeyCode())) return;
+        if (--keysHolding[Integer.numberOfTrailingZeros(action)] == 0) {
+            queue.offer(action | InputEventQueue.RELEASED, eventNanos(e));
         }
     }
 
     @Override
     public void keyTyped(KeyEvent e) {}
 
-    // Getters for GamePanel to use
-    public boolean isLeftPressed() { return leftPressed; }
-    public boolean isRightPressed() { return rightPressed; }
-    public boolean isFirePressed() { return firePressed; }
-    public boolean isDashPressed() { return dashPressed; }
-    public boolean isEnterPressed() { return enterPressed; }
-    public boolean isRestartPressed() { return restartPressed; }
-
-    // Optional: call this each frame to "consume" one-time presses like ENTER or R
-    public void resetOneTimeActions() {
-        enterPressed = false;
-        restartPressed = false;
+    // When the key actually went down, on the nanoTime clock; getWhen() predates the AWT event queue
+    private static long eventNanos(KeyEvent e) {
+        long now = System.nanoTime();
+        long queuedMillis = System.currentTimeMillis() - e.getWhen();
+        return (queuedMillis > 0 && queuedMillis < 1000) ? now - queuedMillis * 1_000_000L : now;
+    }
+
+    public boolean isDebugOverlayVisible() { return debugOverlayVisible; }
+
+    public InputEventQueue getQueue() { return queue; }
+
+    // Drain every queued event into this tick's action bits
+    @Override
+    public int poll() {
+        int pressed = 0;
+        long oldestPress = 0;
+        int n = queue.available();
+        for (int i = 0; i < n; i++) {
+            int event = queue.eventAt(i);
+            int action = event & ~InputEventQueue.PRESSED;
+            if ((event & InputEventQueue.PRESSED) != 0) {
+                held |= action;
+                pressed |= action;
+                if (oldestPress == 0) oldestPress = queue.timeAt(i);
+            } else {
+                held &= ~action;
+            }
+        }
+        queue.skip(n);
+        pollEventNanos = oldestPress;
+        return (held & ~EDGE_ACTIONS) | pressed;
+    }
+
+    @Override
+    public long pollEventNanos() {
+        return pollEventNanos;
     }
 }
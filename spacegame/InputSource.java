@@ -0,0 +1,15 @@
+package spacegame;
+
+// Supplies one tick's worth of input as a bitmask of the InputManager action bits.
+// Live keyboard, replay playback and scripted bots all plug in here.
+public interface InputSource {
+
+    int poll();
+
+    // System.nanoTime of the oldest key press the last poll took, or 0 if it took none
+    default long pollEventNanos() {
+        return 0;
+    }
+
+    InputSource NONE = () -> 0;
+}
@@ -0,0 +1,26 @@
+package spacegame;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+
+// Audio backend on top of javax.sound Clips; each voice is one open Clip that is rewound on reuse
+public class JavaSoundBackend implements AudioBackend {
+
+    @Override
+    public Voice open(AudioFormat format, byte[] data) throws Exception {
+        Clip clip = AudioSystem.getClip();
+        clip.open(format, data, 0, data.length);
+        return new Voice() {
+            public void restart() {
+                clip.stop();
+                clip.setFramePosition(0);
+                clip.start();
+            }
+
+            public boolean isPlaying() { return clip.isActive(); }
+
+            public void close() { clip.close(); }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package spacegame;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-phase timing for the simulation tick and the render pass, plus allocation per tick
+// and live entity counts. Everything on the hot path is a nanoTime call and a histogram
+// increment; a disabled instance skips even that.
+public class Metrics implements MetricsMXBean {
+
+    public enum Phase {
+        // Parts of a simulation tick; FLUSH applies the tick's queued spawns and despawns
+        INPUT, STARS, OBSTACLES, EXPLOSIONS, SPAWN, FLUSH,
+        // Whole tick, HUD refresh, drawing one frame, and time between presented frames
+        TICK, HUD, RENDER, FRAME,
+        // Key press to the first presented frame that shows its effect
+        LATENCY
+    }
+
+    static final Phase[] TICK_PHASES = { Phase.INPUT, Phase.STARS, Phase.OBSTACLES, Phase.EXPLOSIONS, Phase.SPAWN, Phase.FLUSH };
+
+    // Shared no-op instance for worlds nobody is watching (headless runs, benchmarks)
+    public static final Metrics DISABLED = new Metrics(false);
+
+    private final boolean enabled;
+    private final Histogram[] phases = new Histogram[Phase.values().length];
+    private final long[] last = new long[Phase.values().length];
+    // Tick phases can run in several slices per tick; slices add up here until endTick
+    private final long[] pending = new long[Phase.values().length];
+    private final Histogram allocatedPerTick = new Histogram();
+
+    private final com.sun.management.ThreadMXBean threads;
+    private long tickStartAllocated;
+
+    private volatile int obstacleCount, particleCount;
+
+    public Metrics() {
+        this(true);
+    }
+
+    private Metrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < phases.length; i++) phases[i] = new Histogram();
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        threads = (enabled && bean instanceof com.sun.management.ThreadMXBean sun
+                && sun.isThreadAllocatedMemorySupported()) ? sun : null;
+    }
+
+    // Timestamp to measure a phase from; 0 when disabled
+    public long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // Count the time since start towards a tick phase, and return now as the start of the next slice
+    public long lap(Phase phase, long start) {
+        if (!enabled) return 0;
+        long now = System.nanoTime();
+        pending[phase.ordinal()] += now - start;
+        return now;
+    }
+
+    public void record(Phase phase, long nanos) {
+        if (!enabled) return;
+        phases[phase.ordinal()].record(nanos);
+        last[phase.ordinal()] = nanos;
+    }
+
+    // Bracket one simulation tick: tick time plus bytes the calling thread allocated during it
+    public long beginTick() {
+        if (!enabled) return 0;
+        if (threads != null) tickStartAllocated = threads.getCurrentThreadAllocatedBytes();
+        return System.nanoTime();
+    }
+
+    public void endTick(long start, int obstacles, int particles) {
+        if (!enabled) return;
+        record(Phase.TICK, System.nanoTime() - start);
+        for (Phase phase : TICK_PHASES) {
+            record(phase, pending[phase.ordinal()]);
+            pending[phase.ordinal()] = 0;
+        }
+        if (threads != null) allocatedPerTick.record(threads.getCurrentThreadAllocatedBytes() - tickStartAllocated);
+        obstacleCount = obstacles;
+        particleCount = particles;
+    }
+
+    // Input-to-photon sample for a frame that has just been presented
+    public void recordLatency(RenderSnapshot snapshot) {
+        long pressed = snapshot.takeInputNanos();
+        if (enabled && pressed != 0) record(Phase.LATENCY, System.nanoTime() - pressed);
+    }
+
+    public Histogram get(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    // Most recent sample of a phase, in nanoseconds
+    public long getLast(Phase phase) {
+        return last[phase.ordinal()];
+    }
+
+    public Histogram getAllocatedPerTick() {
+        return allocatedPerTick;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Expose this instance over JMX; failures only cost the JMX view
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("spacegame:type=Metrics"));
+        } catch (Exception e) {
+            System.err.println("Metrics not registered with JMX: " + e.getMessage());
+        }
+    }
+
+    // One row per phase plus allocation; times in microseconds
+    public void writeCsv(Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("phase,count,mean_us,p50_us,p99_us,max_us");
+            for (Phase phase : Phase.values()) {
+                Histogram h = get(phase);
+                out.printf("%s,%d,%.1f,%.1f,%.1f,%.1f%n", phase.name().toLowerCase(), h.getCount(),
+                        h.getMean() / 1e3, h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.getMax() / 1e3);
+            }
+            Histogram a = allocatedPerTick;
+            out.printf("allocated_bytes_per_tick,%d,%.1f,%d,%d,%d%n",
+                    a.getCount(), a.getMean(), a.percentile(0.50), a.percentile(0.99), a.getMax());
+        }
+    }
+
+    // Where tick time goes: mean and p99 of each tick phase and its share of the mean tick
+    public void printTickBreakdown(PrintStream out) {
+        double tickMean = get(Phase.TICK).getMean();
+        out.printf("%-12s %10s %10s %7s%n", "phase", "mean_us", "p99_us", "share");
+        for (Phase phase : TICK_PHASES) {
+            Histogram h = get(phase);
+            out.printf("%-12s %10.1f %10.1f %6.1f%%%n", phase.name().toLowerCase(), h.getMean() / 1e3,
+                    h.percentile(0.99) / 1e3, (tickMean > 0) ? 100 * h.getMean() / tickMean : 0);
+        }
+        Histogram tick = get(Phase.TICK);
+        out.printf("%-12s %10.1f %10.1f %7s%n", "tick", tick.getMean() / 1e3, tick.percentile(0.99) / 1e3, "");
+    }
+
+    // MetricsMXBean
+
+    @Override public double getTickP50Micros() { return get(Phase.TICK).percentile(0.50) / 1e3; }
+    @Override public double getTickP99Micros() { return get(Phase.TICK).percentile(0.99) / 1e3; }
+    @Override public double getFrameP50Micros() { return get(Phase.FRAME).percentile(0.50) / 1e3; }
+    @Override public double getFrameP99Micros() { return get(Phase.FRAME).percentile(0.99) / 1e3; }
+    @Override public double getInputLatencyP50Micros() { return get(Phase.LATENCY).percentile(0.50) / 1e3; }
+    @Override public double getInputLatencyP99Micros() { return get(Phase.LATENCY).percentile(0.99) / 1e3; }
+    @Override public long getTickCount() { return get(Phase.TICK).getCount(); }
+    @Override public int getObstacleCount() { return obstacleCount; }
+    @Override public int getParticleCount() { return particleCount; }
+    @Override public double getAllocatedBytesPerTick() { return allocatedPerTick.getMean(); }
+
+    @Override
+    public Map<String, Double> getPhaseP99Micros() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            result.put(phase.name().toLowerCase(), get(phase).percentile(0.99) / 1e3);
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        for (Histogram h : phases) h.reset();
+        allocatedPerTick.reset();
+    }
+}
@@ -0,0 +1,22 @@
+package spacegame;
+
+import java.util.Map;
+
+// JMX view of Metrics, registered as spacegame:type=Metrics. Times are in microseconds.
+public interface MetricsMXBean {
+    double getTickP50Micros();
+    double getTickP99Micros();
+    double getFrameP50Micros();
+    double getFrameP99Micros();
+    double getInputLatencyP50Micros();
+    double getInputLatencyP99Micros();
+    long getTickCount();
+    int getObstacleCount();
+    int getParticleCount();
+    double getAllocatedBytesPerTick();
+
+    // p99 of every phase, keyed by phase name
+    Map<String, Double> getPhaseP99Micros();
+
+    void reset();
+}
@@ -0,0 +1,548 @@
+package spacegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Client end of a co-op game: mirrors a NetServer's world for drawing, and sends the server
+// this player's input every tick. The player's own ship is predicted: each input moves a local
+// copy at once, and when a snapshot says where the server had the ship after some input, the
+// copy restarts from there and replays the inputs the server hasn't used yet. Other ships and
+// shots are drawn INTERPOLATION_TICKS behind the server, blended between the snapshots either
+// side; obstacles fall at a known speed, so they are extrapolated to the server's present.
+// Like Simulation, everything happens in update() on the caller's thread.
+public class NetClient implements FrameSource, AutoCloseable {
+
+    // Two snapshot gaps and a tick of slack, so one lost snapshot doesn't stall anything
+    static final int INTERPOLATION_TICKS = 2 * NetProtocol.SNAPSHOT_INTERVAL_TICKS + 1;
+
+    private static final long HELLO_RETRY_NANOS = 250_000_000L;
+    private static final int INPUT_HISTORY = 64;
+    private static final int SNAPSHOT_HISTORY = 16;
+    private static final int MAX_SHOTS = 256;
+    private static final int MAX_TICKS_PER_UPDATE = 5;
+
+    // The estimated server clock eases towards each snapshot's tick, or jumps if it is this far out
+    private static final double CLOCK_SNAP_TICKS = 10;
+    private static final double CLOCK_EASING = 0.1;
+
+    // Ships and shots from one snapshot, kept for interpolation
+    private static class Frame {
+        long tick = -1;
+        int ships;
+        final int[] shipX = new int[GameWorld.MAX_PLAYERS];
+        final int[] shipY = new int[GameWorld.MAX_PLAYERS];
+        final int[] shipHealth = new int[GameWorld.MAX_PLAYERS];
+        int shots;
+        final int[] shotSlot = new int[MAX_SHOTS];
+        final int[] shotX = new int[MAX_SHOTS];
+        final int[] shotY = new int[MAX_SHOTS];
+    }
+
+    private final NetLink link;
+    private final SocketAddress server;
+    private final InputSource input;
+    private final Metrics metrics;
+    private final int nonce;
+    private RenderBuffer renderBuffer;
+
+    private boolean connected, rejected;
+    private int token;
+    private int slot = -1;
+    private long lastHelloNanos = -1;
+
+    // Client ticks; seq numbers the inputs sent, and each is kept with the x it was predicted to give
+    private long accumulator = 0;
+    private long lastTime = -1;
+    private int seq = 0;
+    private final int[] sentMask = new int[INPUT_HISTORY];
+    private final int[] predictedX = new int[INPUT_HISTORY];
+    private final Player predicted = new Player(0, 0);
+    private long pendingInputNanos = 0;
+    private long predictionChecks, mispredictions;
+    private int maxPredictionError;
+
+    // Newest snapshot applied
+    private long latestTick = -1;
+    private boolean partial;
+    private int epoch = -1;
+    private GameWorld.GameState state = GameWorld.GameState.MENU;
+    private int score;
+    private long elapsedMillis;
+    private final Frame[] frames = new Frame[SNAPSHOT_HISTORY];
+    private int newestFrame = -1;
+
+    // Known obstacles in id order, each as it stood at obstacleTick
+    private int obstacleCount = 0;
+    private int[] obstacleId = new int[64], obstacleX = new int[64], obstacleY = new int[64];
+    private int[] obstacleSpeed = new int[64], obstacleSize = new int[64], obstacleFrame = new int[64];
+    private long[] obstacleTick = new long[64];
+
+    // Server tick as estimated from here: clockTick at clockNanos, running at the tick rate
+    private double clockTick;
+    private long clockNanos = -1;
+
+    // Stars and explosions are only decoration, so each client makes its own
+    private final Starfield stars;
+    private final ParticleSystem particles;
+
+    private final ByteBuffer in = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+    private final ByteBuffer out = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+    private long snapshotsReceived, fullSnapshots, staleSnapshots, snapshotBytes;
+
+    // host:port, or just host for the default port
+    public static NetClient connect(String address, InputSource input, Metrics metrics, NetConditions conditions)
+            throws IOException {
+        int colon = address.lastIndexOf(':');
+        String host = (colon >= 0) ? address.substring(0, colon) : address;
+        int port = (colon >= 0) ? Integer.parseInt(address.substring(colon + 1)) : NetServer.DEFAULT_PORT;
+        NetLink link = NetLink.bind(0, conditions, System.nanoTime());
+        return new NetClient(link, new InetSocketAddress(host, port), input, metrics, Starfield.DEFAULT_STARS);
+    }
+
+    public NetClient(NetLink link, SocketAddress server, InputSource input, Metrics metrics, int starCount) {
+        this.link = link;
+        this.server = server;
+        this.input = input;
+        this.metrics = metrics;
+        GameRandom random = new GameRandom(System.nanoTime());
+        this.nonce = (int) random.nextLong();
+        this.stars = new Starfield(starCount, GamePanel.WIDTH, GamePanel.HEIGHT, random.split());
+        this.particles = new ParticleSystem(random.split());
+        for (int i = 0; i < frames.length; i++) frames[i] = new Frame();
+    }
+
+    @Override
+    public RenderBuffer publishSnapshots() {
+        if (renderBuffer == null) {
+            renderBuffer = new RenderBuffer();
+            publish(System.nanoTime());
+        }
+        return renderBuffer;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // Explosions are the only effect simulated here; the dash trail isn't mirrored
+    @Override
+    public void setQuality(QualityGovernor.Level level) {
+        particles.setPerExplosion(level.particlesPerExplosion);
+    }
+
+    // Read what the server sent, run the client ticks that are due (each sends an input), and
+    // publish a frame if any ran. A network error is reported and the game carries on; the
+    // server drops a client it stops hearing from.
+    @Override
+    public void update(long nowNanos) {
+        int ticks = 0;
+        try {
+            receive(nowNanos);
+            if (!connected && !rejected && (lastHelloNanos < 0 || nowNanos - lastHelloNanos >= HELLO_RETRY_NANOS)) {
+                sendHello(nowNanos);
+            }
+
+            if (lastTime < 0) lastTime = nowNanos;
+            accumulator += nowNanos - lastTime;
+            lastTime = nowNanos;
+            while (accumulator >= Simulation.TICK_NANOS && ticks < MAX_TICKS_PER_UPDATE) {
+                tick(nowNanos);
+                accumulator -= Simulation.TICK_NANOS;
+                ticks++;
+            }
+            if (accumulator >= Simulation.TICK_NANOS) accumulator %= Simulation.TICK_NANOS;
+            link.flush(nowNanos);
+        } catch (IOException e) {
+            System.err.println("Network error: " + e);
+        }
+        if (ticks > 0 && renderBuffer != null) {
+            publish(nowNanos - accumulator);
+        }
+    }
+
+    // Say goodbye so the slot frees at once rather than after the timeout
+    @Override
+    public void close() throws IOException {
+        if (connected) {
+            out.clear();
+            out.put(NetProtocol.BYE).putInt(token);
+            out.flip();
+            link.send(out, server, System.nanoTime());
+            link.flush(Long.MAX_VALUE);
+        }
+        link.close();
+    }
+
+    private void sendHello(long nowNanos) throws IOException {
+        out.clear();
+        out.put(NetProtocol.HELLO).put((byte) NetProtocol.VERSION).putInt(nonce);
+        out.flip();
+        link.send(out, server, nowNanos);
+        lastHelloNanos = nowNanos;
+    }
+
+    private void tick(long nowNanos) throws IOException {
+        stars.update();
+        particles.update();
+        int mask = input.poll();
+        if (pendingInputNanos == 0) pendingInputNanos = input.pollEventNanos();
+        if (!connected) return;
+
+        seq++;
+        sentMask[seq % INPUT_HISTORY] = mask;
+        if (isPredicting()) predict(mask);
+        predictedX[seq % INPUT_HISTORY] = predicted.getX();
+
+        out.clear();
+        out.put(NetProtocol.INPUT).putInt(token).putInt((int) latestTick).putInt(seq);
+        int count = Math.min(NetProtocol.INPUT_REDUNDANCY, seq);
+        out.put((byte) count);
+        for (int k = 0; k < count; k++) out.put((byte) sentMask[(seq - k) % INPUT_HISTORY]);
+        out.flip();
+        link.send(out, server, nowNanos);
+    }
+
+    // The server moves a ship while it exists and, in co-op, still has health
+    private boolean isPredicting() {
+        if (newestFrame < 0) return false;
+        Frame f = frames[newestFrame];
+        return slot < f.ships && (f.ships == 1 || f.shipHealth[slot] > 0);
+    }
+
+    // One tick of the ship, exactly as GameWorld runs it: update, steer, dash
+    private void predict(int mask) {
+        predicted.update();
+        GameWorld.moveShip(predicted, mask);
+        GameWorld.dashShip(predicted, mask);
+    }
+
+    private void receive(long nowNanos) throws IOException {
+        while (link.receive(in) != null) {
+            int size = in.remaining();
+            try {
+                byte type = in.get();
+                if (type == NetProtocol.WELCOME) {
+                    readWelcome();
+                } else if (type == NetProtocol.FULL) {
+                    if (in.getInt() == nonce && !connected) {
+                        rejected = true;
+                        System.err.println("Server " + server + " is full");
+                    }
+                } else if (type == NetProtocol.SNAPSHOT && connected) {
+                    readSnapshot(nowNanos);
+                    snapshotBytes += size;
+                }
+            } catch (RuntimeException e) {
+                // Truncated or garbled datagram; drop it
+            }
+        }
+    }
+
+    private void readWelcome() {
+        if (in.getInt() != nonce || connected) return;
+        token = in.getInt();
+        slot = in.get();
+        connected = true;
+        System.out.println("Connected to " + server + " as player " + (slot + 1) + " of " + in.get());
+    }
+
+    private void readSnapshot(long nowNanos) {
+        long tick = in.getInt();
+        long baseTick = in.getInt();
+        int snapshotEpoch = in.get() & 0xFF;
+        in.getInt(); // covered id; the client only needs it implicitly
+        int flags = in.get();
+        if (tick <= latestTick) {
+            staleSnapshots++;
+            return;
+        }
+        boolean sameEpoch = snapshotEpoch == epoch;
+        snapshotsReceived++;
+        state = GameWorld.GameState.values()[in.get()];
+        score = in.getInt();
+        elapsedMillis = in.getInt();
+
+        int next = (newestFrame + 1) % SNAPSHOT_HISTORY;
+        Frame f = frames[next];
+        f.tick = tick;
+        f.ships = in.get();
+        int ownX = 0, ownY = 0, applied = 0;
+        for (int i = 0; i < f.ships; i++) {
+            f.shipX[i] = in.getShort();
+            f.shipY[i] = in.getShort();
+            f.shipHealth[i] = in.get();
+            int seqApplied = in.getInt();
+            if (i == slot) {
+                ownX = f.shipX[i];
+                ownY = f.shipY[i];
+                applied = seqApplied;
+            }
+        }
+        f.shots = in.get() & 0xFF;
+        for (int k = 0; k < f.shots; k++) {
+            f.shotSlot[k] = in.get() & 0xFF;
+            f.shotX[k] = in.getShort();
+            f.shotY[k] = in.getShort();
+        }
+
+        if (baseTick < 0) {
+            obstacleCount = 0;
+            fullSnapshots++;
+        }
+        int despawns = NetProtocol.getVarInt(in);
+        for (int k = 0, id = 0; k < despawns; k++) {
+            id += NetProtocol.getVarInt(in);
+            int i = indexOfObstacle(id);
+            if (i < 0) continue;
+            int y = obstacleYAt(i, tick);
+            particles.spawnExplosion(obstacleX[i], y);
+            removeObstacle(i);
+        }
+        int spawns = in.getShort();
+        for (int k = 0, id = 0; k < spawns; k++) {
+            id += NetProtocol.getVarInt(in);
+            int x = in.getShort(), y = in.getShort();
+            int speed = in.get() & 0xFF, size = in.getShort(), frame = in.get();
+            addObstacle(id, x, y, speed, size, frame, tick);
+        }
+        // Whatever has fallen off the bottom by now is gone on the server too
+        for (int i = obstacleCount - 1; i >= 0; i--) {
+            if (obstacleYAt(i, tick) > GamePanel.HEIGHT) removeObstacle(i);
+        }
+
+        newestFrame = next;
+        latestTick = tick;
+        partial = (flags & NetProtocol.PARTIAL) != 0;
+        epoch = snapshotEpoch;
+        syncClock(tick, nowNanos);
+        if (slot < f.ships) reconcile(ownX, ownY, applied, sameEpoch);
+    }
+
+    // Restart the prediction from where the server had the ship after input seq applied
+    private void reconcile(int x, int y, int applied, boolean sameEpoch) {
+        if (sameEpoch && applied > 0 && applied <= seq && seq - applied < INPUT_HISTORY) {
+            predictionChecks++;
+            int error = Math.abs(predictedX[applied % INPUT_HISTORY] - x);
+            if (error != 0) {
+                mispredictions++;
+                maxPredictionError = Math.max(maxPredictionError, error);
+            }
+        }
+        predicted.reset(x, y);
+        boolean predicting = isPredicting();
+        for (int s = Math.max(applied + 1, seq - INPUT_HISTORY + 1); s <= seq; s++) {
+            if (predicting) predict(sentMask[s % INPUT_HISTORY]);
+            predictedX[s % INPUT_HISTORY] = predicted.getX();
+        }
+    }
+
+    private void syncClock(long tick, long nowNanos) {
+        double estimate = serverTickAt(nowNanos);
+        if (clockNanos < 0 || Math.abs(tick - estimate) > CLOCK_SNAP_TICKS) {
+            clockTick = tick;
+        } else {
+            clockTick = estimate + (tick - estimate) * CLOCK_EASING;
+        }
+        clockNanos = nowNanos;
+    }
+
+    private double serverTickAt(long nanos) {
+        return clockTick + (double) (nanos - clockNanos) / Simulation.TICK_NANOS;
+    }
+
+    private int obstacleYAt(int i, double tick) {
+        return (int) Math.round(obstacleY[i] + obstacleSpeed[i] * (tick - obstacleTick[i]));
+    }
+
+    private int indexOfObstacle(int id) {
+        int lo = 0, hi = obstacleCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (obstacleId[mid] < id) lo = mid + 1;
+            else if (obstacleId[mid] > id) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    // Spawns usually come after everything known; one already known (from a newer snapshot than
+    // the delta's base) is left as it is
+    private void addObstacle(int id, int x, int y, int speed, int size, int frame, long tick) {
+        int i = indexOfObstacle(id);
+        if (i >= 0) return;
+        i = -(i + 1);
+        if (obstacleCount == obstacleId.length) {
+            int capacity = obstacleCount * 2;
+            obstacleId = Arrays.copyOf(obstacleId, capacity);
+            obstacleX = Arrays.copyOf(obstacleX, capacity);
+            obstacleY = Arrays.copyOf(obstacleY, capacity);
+            obstacleSpeed = Arrays.copyOf(obstacleSpeed, capacity);
+            obstacleSize = Arrays.copyOf(obstacleSize, capacity);
+            obstacleFrame = Arrays.copyOf(obstacleFrame, capacity);
+            obstacleTick = Arrays.copyOf(obstacleTick, capacity);
+        }
+        int tail = obstacleCount - i;
+        if (tail > 0) {
+            System.arraycopy(obstacleId, i, obstacleId, i + 1, tail);
+            System.arraycopy(obstacleX, i, obstacleX, i + 1, tail);
+            System.arraycopy(obstacleY, i, obstacleY, i + 1, tail);
+            System.arraycopy(obstacleSpeed, i, obstacleSpeed, i + 1, tail);
+            System.arraycopy(obstacleSize, i, obstacleSize, i + 1, tail);
+            System.arraycopy(obstacleFrame, i, obstacleFrame, i + 1, tail);
+            System.arraycopy(obstacleTick, i, obstacleTick, i + 1, tail);
+        }
+        obstacleId[i] = id;
+        obstacleX[i] = x;
+        obstacleY[i] = y;
+        obstacleSpeed[i] = speed;
+        obstacleSize[i] = size;
+        obstacleFrame[i] = frame;
+        obstacleTick[i] = tick;
+        obstacleCount++;
+    }
+
+    private void removeObstacle(int i) {
+        int tail = obstacleCount - i - 1;
+        if (tail > 0) {
+            System.arraycopy(obstacleId, i + 1, obstacleId, i, tail);
+            System.arraycopy(obstacleX, i + 1, obstacleX, i, tail);
+            System.arraycopy(obstacleY, i + 1, obstacleY, i, tail);
+            System.arraycopy(obstacleSpeed, i + 1, obstacleSpeed, i, tail);
+            System.arraycopy(obstacleSize, i + 1, obstacleSize, i, tail);
+            System.arraycopy(obstacleFrame, i + 1, obstacleFrame, i, tail);
+            System.arraycopy(obstacleTick, i + 1, obstacleTick, i, tail);
+        }
+        obstacleCount--;
+    }
+
+    // Fill the back render snapshot for a client tick that ran at tickNanos. Positions are worked
+    // out for that tick and the one before, so the renderer's usual blend smooths them per frame.
+    private void publish(long tickNanos) {
+        RenderSnapshot s = renderBuffer.back();
+        s.tick = seq;
+        s.tickNanos = tickNanos;
+        s.inputNanos = pendingInputNanos;
+        pendingInputNanos = 0;
+        s.state = state;
+        s.score = score;
+        s.elapsedMillis = elapsedMillis;
+        s.trailCount = 0;
+        s.trailFadeTicks = DashTrail.DEFAULT_FADE_TICKS;
+
+        Frame newest = (newestFrame >= 0) ? frames[newestFrame] : null;
+        s.hasPlayer = newest != null && slot >= 0 && slot < newest.ships;
+        s.health = s.hasPlayer ? newest.shipHealth[slot] : 0;
+        s.playerX = predicted.getX();
+        s.playerPrevX = predicted.getPrevX();
+        s.playerY = predicted.getY();
+
+        double now = (clockNanos >= 0) ? serverTickAt(tickNanos) : 0;
+        double behind = now - INTERPOLATION_TICKS;
+        s.otherShipCount = 0;
+        s.projectileCount = 0;
+        if (newest != null) {
+            for (int i = 0; i < newest.ships; i++) {
+                if (i == slot || newest.shipHealth[i] <= 0) continue;
+                s.addOtherShip(shipXAt(i, behind), shipXAt(i, behind - 1), newest.shipY[i]);
+            }
+            fillShots(s, behind);
+        }
+
+        s.ensureObstacleCapacity(obstacleCount);
+        int n = 0;
+        for (int i = 0; i < obstacleCount; i++) {
+            int y = obstacleYAt(i, now);
+            if (y > GamePanel.HEIGHT) continue;
+            s.obstacleX[n] = obstacleX[i];
+            s.obstacleY[n] = y;
+            s.obstaclePrevY[n] = obstacleYAt(i, now - 1);
+            s.obstacleFrame[n] = obstacleFrame[i];
+            s.obstacleSize[n] = obstacleSize[i];
+            n++;
+        }
+        s.obstacleCount = n;
+
+        s.copyEffects(particles, stars);
+        renderBuffer.swap();
+    }
+
+    // The newest frame at or before tick, or the oldest kept if tick is older than all of them
+    private int frameAtOrBefore(double tick) {
+        int best = -1;
+        for (int k = 0; k < SNAPSHOT_HISTORY; k++) {
+            int i = (newestFrame - k + SNAPSHOT_HISTORY) % SNAPSHOT_HISTORY;
+            if (frames[i].tick < 0) break;
+            best = i;
+            if (frames[i].tick <= tick) break;
+        }
+        return best;
+    }
+
+    private int shipXAt(int ship, double tick) {
+        int a = frameAtOrBefore(tick);
+        int b = (a + 1) % SNAPSHOT_HISTORY;
+        Frame fa = frames[a];
+        if (a == newestFrame || ship >= fa.ships || ship >= frames[b].ships || fa.tick > tick) {
+            return (ship < fa.ships) ? fa.shipX[ship] : frames[newestFrame].shipX[ship];
+        }
+        Frame fb = frames[b];
+        double t = (tick - fa.tick) / (fb.tick - fa.tick);
+        return (int) Math.round(fa.shipX[ship] + (fb.shipX[ship] - fa.shipX[ship]) * t);
+    }
+
+    // Shots from the frame before the interpolation point, moved towards the same slot in the next
+    private void fillShots(RenderSnapshot s, double tick) {
+        int a = frameAtOrBefore(tick);
+        Frame fa = frames[a];
+        Frame fb = (a == newestFrame) ? null : frames[(a + 1) % SNAPSHOT_HISTORY];
+        double t = (fb != null && fa.tick <= tick) ? (tick - fa.tick) / (fb.tick - fa.tick) : 0;
+        double step = (fb != null) ? 1.0 / (fb.tick - fa.tick) : 0;
+        s.ensureProjectileCapacity(fa.shots);
+        for (int k = 0; k < fa.shots; k++) {
+            int y = fa.shotY[k], prevY = y;
+            if (fb != null) {
+                for (int j = 0; j < fb.shots; j++) {
+                    if (fb.shotSlot[j] != fa.shotSlot[k] || fb.shotX[j] != fa.shotX[k]) continue;
+                    y = (int) Math.round(fa.shotY[k] + (fb.shotY[j] - fa.shotY[k]) * t);
+                    prevY = (int) Math.round(fa.shotY[k] + (fb.shotY[j] - fa.shotY[k]) * Math.max(0, t - step));
+                    break;
+                }
+            }
+            s.projectileX[k] = fa.shotX[k];
+            s.projectileY[k] = y;
+            s.projectilePrevY[k] = prevY;
+        }
+        s.projectileCount = fa.shots;
+    }
+
+    // Hash of the obstacles as this client believes they stood at getLatestTick(), comparable
+    // with NetServer.getObstacleHash
+    public long obstacleHash() {
+        long hash = 0;
+        for (int i = 0; i < obstacleCount; i++) {
+            hash = NetProtocol.mixObstacle(hash, obstacleId[i], obstacleX[i], obstacleYAt(i, latestTick));
+        }
+        return hash;
+    }
+
+    public boolean isConnected() { return connected; }
+    public boolean isRejected() { return rejected; }
+    public int getSlot() { return slot; }
+    public GameWorld.GameState getGameState() { return state; }
+    public long getLatestTick() { return latestTick; }
+    // The newest snapshot ran out of room for spawns; some obstacles have yet to arrive
+    public boolean isPartial() { return partial; }
+    public int getObstacleCount() { return obstacleCount; }
+    public long getPredictionChecks() { return predictionChecks; }
+    public long getMispredictions() { return mispredictions; }
+    public int getMaxPredictionError() { return maxPredictionError; }
+    public long getSnapshotsReceived() { return snapshotsReceived; }
+    public long getFullSnapshots() { return fullSnapshots; }
+    public long getStaleSnapshots() { return staleSnapshots; }
+    public long getSnapshotBytes() { return snapshotBytes; }
+    public NetLink getLink() { return link; }
+}
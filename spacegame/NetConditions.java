@@ -0,0 +1,32 @@
+package spacegame;
+
+// Simulated network trouble for one direction of a link: a fixed one-way delay, up to jitterMillis
+// of extra random delay (which can reorder packets), and a chance of losing each packet outright.
+// NONE sends everything straight away, as a real network would be left to do.
+public class NetConditions {
+
+    public static final NetConditions NONE = new NetConditions(0, 0, 0);
+
+    final int latencyMillis;
+    final int jitterMillis;
+    final double loss;
+
+    public NetConditions(int latencyMillis, int jitterMillis, double loss) {
+        if (latencyMillis < 0 || jitterMillis < 0 || loss < 0 || loss >= 1) {
+            throw new IllegalArgumentException("Bad network conditions: " + latencyMillis + "ms +"
+                    + jitterMillis + "ms, loss " + loss);
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.loss = loss;
+    }
+
+    public boolean isPerfect() {
+        return latencyMillis == 0 && jitterMillis == 0 && loss == 0;
+    }
+
+    @Override
+    public String toString() {
+        return latencyMillis + "ms +" + jitterMillis + "ms jitter, " + Math.round(loss * 100) + "% loss";
+    }
+}
@@ -0,0 +1,113 @@
+package spacegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+
+// One non-blocking UDP socket, plus the simulated conditions its outgoing packets go through.
+// Delayed packets wait in a queue ordered by due time until flush() sends them; their buffers
+// are pooled, so a steady stream of sends allocates nothing once the queue has warmed up.
+// Byte and packet counts are taken as the application sends and receives, before any loss.
+public class NetLink implements AutoCloseable {
+
+    private final DatagramChannel channel;
+    private final NetConditions conditions;
+    private final GameRandom random;
+
+    // Outgoing packets held back by the simulated latency, oldest due first
+    private static class Delayed {
+        long dueNanos;
+        long order;
+        SocketAddress to;
+        final ByteBuffer data = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+    }
+
+    private final PriorityQueue<Delayed> delayed = new PriorityQueue<>((a, b) -> {
+        int c = Long.compare(a.dueNanos, b.dueNanos);
+        return (c != 0) ? c : Long.compare(a.order, b.order);
+    });
+    private final ArrayDeque<Delayed> spare = new ArrayDeque<>();
+    private long sendOrder = 0;
+
+    private long bytesSent, packetsSent, packetsDropped;
+    private long bytesReceived, packetsReceived;
+
+    // Bound to the given port on every interface (0 picks a free one)
+    public static NetLink bind(int port, NetConditions conditions, long seed) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+        return new NetLink(channel, conditions, seed);
+    }
+
+    private NetLink(DatagramChannel channel, NetConditions conditions, long seed) {
+        this.channel = channel;
+        this.conditions = conditions;
+        this.random = new GameRandom(seed);
+    }
+
+    // Send the packet between data's position and limit, now or once its simulated delay is up
+    public void send(ByteBuffer data, SocketAddress to, long nowNanos) throws IOException {
+        bytesSent += data.remaining();
+        packetsSent++;
+        if (conditions.loss > 0 && random.nextDouble() < conditions.loss) {
+            packetsDropped++;
+            return;
+        }
+        long delayMillis = conditions.latencyMillis
+                + (conditions.jitterMillis > 0 ? random.nextInt(conditions.jitterMillis + 1) : 0);
+        if (delayMillis == 0) {
+            channel.send(data, to);
+            return;
+        }
+        Delayed packet = spare.isEmpty() ? new Delayed() : spare.poll();
+        packet.dueNanos = nowNanos + delayMillis * 1_000_000L;
+        packet.order = sendOrder++;
+        packet.to = to;
+        packet.data.clear();
+        packet.data.put(data);
+        packet.data.flip();
+        delayed.add(packet);
+    }
+
+    // Put every delayed packet that is due on the wire
+    public void flush(long nowNanos) throws IOException {
+        while (!delayed.isEmpty() && delayed.peek().dueNanos <= nowNanos) {
+            Delayed packet = delayed.poll();
+            channel.send(packet.data, packet.to);
+            packet.to = null;
+            spare.add(packet);
+        }
+    }
+
+    // The next waiting packet, flipped for reading, and who sent it; null if nothing has arrived
+    public SocketAddress receive(ByteBuffer into) throws IOException {
+        into.clear();
+        SocketAddress from = channel.receive(into);
+        if (from == null) return null;
+        into.flip();
+        bytesReceived += into.remaining();
+        packetsReceived++;
+        return from;
+    }
+
+    public int getLocalPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public NetConditions getConditions() { return conditions; }
+    public long getBytesSent() { return bytesSent; }
+    public long getPacketsSent() { return packetsSent; }
+    public long getPacketsDropped() { return packetsDropped; }
+    public long getBytesReceived() { return bytesReceived; }
+    public long getPacketsReceived() { return packetsReceived; }
+}
@@ -0,0 +1,107 @@
+package spacegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Loopback test of the co-op netcode: one server and some bot clients on 127.0.0.1, all driven
+// from this thread in real time, with latency, jitter and loss simulated on every packet sent in
+// either direction. Each client's reconstructed obstacles are checked against the server's at
+// every snapshot it applies (unless that snapshot was cut short by the packet budget, which is
+// counted instead), and the run ends with per-client bandwidth and prediction figures.
+// Usage: java spacegame.NetLoopback [clients] [seconds] [latency-ms] [jitter-ms] [loss] [waves]
+public class NetLoopback {
+
+    // How long the random bots hold one set of keys
+    private static final int HOLD_TICKS = 8;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int clientCount = (args.length > 0) ? Integer.parseInt(args[0]) : 2;
+        double seconds = (args.length > 1) ? Double.parseDouble(args[1]) : 20;
+        int latency = (args.length > 2) ? Integer.parseInt(args[2]) : 50;
+        int jitter = (args.length > 3) ? Integer.parseInt(args[3]) : 10;
+        double loss = (args.length > 4) ? Double.parseDouble(args[4]) : 0.05;
+        SpawnDirector spawner = (args.length > 5) ? SpawnDirector.load(args[5]) : SpawnDirector.classic();
+        NetConditions conditions = new NetConditions(latency, jitter, loss);
+        clientCount = Math.max(1, Math.min(GameWorld.MAX_PLAYERS, clientCount));
+
+        GameWorld world = new GameWorld(1, 0);
+        world.setSpawnDirector(spawner);
+        NetServer server = new NetServer(world, NetLink.bind(0, conditions, 1), clientCount);
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getLink().getLocalPort());
+
+        List<NetClient> clients = new ArrayList<>();
+        long[] matches = new long[clientCount], mismatches = new long[clientCount], partial = new long[clientCount];
+        long[] checked = new long[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            NetClient[] self = new NetClient[1];
+            InputSource bot = randomBot(() -> self[0], 100 + i);
+            self[0] = new NetClient(NetLink.bind(0, conditions, 2 + i), address, bot, Metrics.DISABLED, 0);
+            clients.add(self[0]);
+            checked[i] = -1;
+        }
+
+        System.out.printf("%d client(s) for %.0fs over loopback, each way %s%n", clientCount, seconds, conditions);
+        long start = System.nanoTime();
+        long end = start + (long) (seconds * 1e9);
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            server.update(now);
+            for (int i = 0; i < clientCount; i++) {
+                NetClient client = clients.get(i);
+                client.update(now);
+                long tick = client.getLatestTick();
+                if (tick != checked[i] && tick >= 0 && server.hasObstacleHash(tick)) {
+                    if (client.isPartial()) partial[i]++;
+                    else if (client.obstacleHash() == server.getObstacleHash(tick)) matches[i]++;
+                    else mismatches[i]++;
+                    checked[i] = tick;
+                }
+            }
+            LockSupport.parkNanos(500_000L);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("server: %,d ticks, score %d, %s%n", world.getTick(), world.getScore(), world.getGameState());
+        System.out.println("client  up kbps  down kbps  pkts up/down  snapshots full/stale  avg bytes"
+                + "  predictions  mispredicted  max err  obstacles ok/bad/partial");
+        List<NetServer.Client> seen = server.getClients();
+        for (int i = 0; i < clientCount; i++) {
+            NetClient client = clients.get(i);
+            NetServer.Client record = null;
+            for (NetServer.Client c : seen) {
+                if (c.getSlot() == client.getSlot()) record = c;
+            }
+            long up = client.getLink().getBytesSent();
+            long down = (record != null) ? record.getBytesOut() : 0;
+            System.out.printf("%6d  %7.1f  %9.1f  %6d/%-6d  %5d %4d/%-5d  %9.0f  %11d  %12d  %7d  %,8d/%d/%d%n",
+                    client.getSlot(), up * 8 / elapsed / 1000, down * 8 / elapsed / 1000,
+                    client.getLink().getPacketsSent(), client.getLink().getPacketsReceived(),
+                    client.getSnapshotsReceived(), client.getFullSnapshots(), client.getStaleSnapshots(),
+                    client.getSnapshotsReceived() > 0 ? (double) client.getSnapshotBytes() / client.getSnapshotsReceived() : 0,
+                    client.getPredictionChecks(), client.getMispredictions(), client.getMaxPredictionError(),
+                    matches[i], mismatches[i], partial[i]);
+        }
+
+        for (NetClient client : clients) client.close();
+        server.close();
+    }
+
+    // Starts (and restarts) the game, then mashes random move, fire and dash keys
+    private static InputSource randomBot(Supplier<NetClient> client, long seed) {
+        GameRandom random = new GameRandom(seed);
+        int[] ticks = new int[2];
+        return () -> {
+            int tick = ticks[0]++;
+            GameWorld.GameState state = client.get().getGameState();
+            if (state == GameWorld.GameState.MENU) return (tick % 10 == 0) ? InputManager.ENTER : 0;
+            if (state == GameWorld.GameState.GAME_OVER) return (tick % 10 == 0) ? InputManager.RESTART : 0;
+            if (tick % HOLD_TICKS == 0) ticks[1] = random.nextInt(InputManager.DASH << 1);
+            return ticks[1];
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package spacegame;
+
+import java.nio.ByteBuffer;
+
+// Wire format shared by NetServer and NetClient. Every packet is one UDP datagram starting with
+// a type byte; numbers are big-endian, and positions are quantized to 16 bits, which loses
+// nothing on a 500 pixel screen. Id lists are ascending and go as varint gaps from the id
+// before (the first from 0). Layouts:
+//
+//   HELLO     version byte, nonce int                                  client -> server, until welcomed
+//   WELCOME   nonce int, token int, slot byte, players byte            server -> client
+//   FULL      nonce int                                                server -> client, no free slot
+//   INPUT     token int, ack tick int, seq int, count byte,            client -> server, every client tick
+//             count masks (seq, seq - 1, ...)
+//   SNAPSHOT  tick int, base tick int (-1 = full), epoch byte,         server -> client, every
+//             covered id int, flags byte (PARTIAL), state byte,        SNAPSHOT_INTERVAL_TICKS
+//             score int, elapsed ms int,
+//             players byte x (x short, y short, health byte, seq int),
+//             shots byte x (slot byte, x short, y short),
+//             despawns varint x (id delta varint),
+//             spawns short x (id delta varint, x short, y short, speed byte, size short, frame byte)
+//   BYE       token int                                                client -> server, on close
+//
+// Obstacles are the bulk of the world, and once spawned they fall at a fixed speed, so a
+// snapshot describes each one once: its spawn record (position as of the snapshot's tick) goes
+// out until a snapshot holding it is acked, and after that only an obstacle shot down or rammed
+// is mentioned again, by id. Obstacles falling off the bottom are culled by the client itself.
+// A delta snapshot is relative to the newest snapshot the client acked (its base tick): spawns
+// are the live obstacles with ids above the base's covered id, despawns every id destroyed
+// since (clients skip ids they never had). A full snapshot replaces the client's obstacles outright. Either
+// kind stops adding spawns at SNAPSHOT_BUDGET bytes, says how far it got in covered id, and is
+// flagged PARTIAL.
+public final class NetProtocol {
+
+    public static final int VERSION = 1;
+
+    public static final byte HELLO = 1;
+    public static final byte WELCOME = 2;
+    public static final byte FULL = 3;
+    public static final byte INPUT = 4;
+    public static final byte SNAPSHOT = 5;
+    public static final byte BYE = 6;
+
+    // Snapshot flag: spawns were cut short by the budget, so the client is missing obstacles
+    // above the covered id until a later snapshot fills them in
+    static final int PARTIAL = 1;
+
+    // Largest datagram either side sends or expects; snapshots stay under SNAPSHOT_BUDGET to
+    // keep clear of fragmentation on an ordinary 1500 byte MTU
+    public static final int MAX_PACKET = 1400;
+    public static final int SNAPSHOT_BUDGET = 1200;
+
+    // Snapshots go out every other tick (25 a second); clients interpolate across the gaps
+    public static final int SNAPSHOT_INTERVAL_TICKS = 2;
+    // Each INPUT packet repeats this many of the newest masks, so a lost packet costs nothing
+    public static final int INPUT_REDUNDANCY = 6;
+
+    // Bytes per spawn record at most; speed goes as an unsigned byte, which no sane wave exceeds
+    // on a 500 pixel screen
+    static final int SPAWN_BYTES = 5 + 2 + 2 + 1 + 2 + 1;
+
+    private NetProtocol() {
+    }
+
+    // Unsigned LEB128: 7 bits per byte, low bits first; ids a few apart take one byte
+    static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static short quantize(int coordinate) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, coordinate));
+    }
+
+    // Order-dependent hash of the obstacle set, fed in id order; server and client both compute
+    // it so loopback runs can check the client's reconstructed world against the real one
+    static long mixObstacle(long hash, int id, int x, int y) {
+        hash ^= ((long) id << 32) ^ ((long) (x & 0xFFFF) << 16) ^ (y & 0xFFFF);
+        hash *= 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,492 @@
+package spacegame;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+// Authoritative co-op server: owns the only real GameWorld, ticks it on the fixed timestep,
+// feeds each ship the input its client sent for that tick, and sends every client a delta
+// snapshot (see NetProtocol) every SNAPSHOT_INTERVAL_TICKS. Everything runs on one thread
+// through update(), so it can share a loop with clients in a loopback test.
+public class NetServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 47800;
+
+    // A client that has sent nothing for this long is dropped and its slot freed
+    static final long CLIENT_TIMEOUT_NANOS = 5_000_000_000L;
+
+    // Client inputs are buffered by sequence number; one is used per tick. A client that runs
+    // more than MAX_INPUT_BACKLOG ahead of the server skips its oldest inputs to catch up.
+    private static final int INPUT_BUFFER = 64;
+    private static final int MAX_INPUT_BACKLOG = 8;
+    // Edge-triggered actions a repeated input must not fire twice
+    private static final int EDGE_ACTIONS = InputManager.ENTER | InputManager.RESTART;
+
+    // Snapshots remembered per client as delta baselines, obstacle destructions remembered in
+    // all, and obstacle hashes kept for loopback verification
+    private static final int SENT_HISTORY = 64;
+    private static final int DESPAWN_LOG = 4096;
+    private static final int HASH_HISTORY = 512;
+
+    private static final int MAX_TICKS_PER_UPDATE = 5;
+
+    // One connected player
+    public static class Client {
+        final SocketAddress address;
+        final int slot;
+        final int token;
+
+        final int[] inputMask = new int[INPUT_BUFFER];
+        final int[] inputSeq = new int[INPUT_BUFFER];
+        int lastApplied = 0;
+        int newestSeq = 0;
+        int held = 0;
+        long ackTick = -1;
+
+        // Snapshot sent at each tick, ring indexed by tick: the obstacle id it covered, and epoch
+        final long[] sentTick = new long[SENT_HISTORY];
+        final int[] sentCovered = new int[SENT_HISTORY];
+        final int[] sentEpoch = new int[SENT_HISTORY];
+
+        long lastHeardNanos;
+        final long joinedNanos;
+        long bytesIn, packetsIn, bytesOut, packetsOut;
+        long fullSnapshots, deltaSnapshots;
+
+        Client(SocketAddress address, int slot, int token, long nowNanos) {
+            this.address = address;
+            this.slot = slot;
+            this.token = token;
+            this.lastHeardNanos = nowNanos;
+            this.joinedNanos = nowNanos;
+            Arrays.fill(inputSeq, -1);
+            Arrays.fill(sentTick, -1);
+        }
+
+        public int getSlot() { return slot; }
+        public long getBytesIn() { return bytesIn; }
+        public long getPacketsIn() { return packetsIn; }
+        public long getBytesOut() { return bytesOut; }
+        public long getPacketsOut() { return packetsOut; }
+        public long getFullSnapshots() { return fullSnapshots; }
+        public long getDeltaSnapshots() { return deltaSnapshots; }
+        public long getConnectedNanos(long nowNanos) { return nowNanos - joinedNanos; }
+    }
+
+    private final GameWorld world;
+    private final NetLink link;
+    private final GameRandom tokens;
+    private final Client[] slots;
+    private final Map<SocketAddress, Client> clients = new HashMap<>();
+    private final int[] inputs = new int[GameWorld.MAX_PLAYERS];
+
+    private long accumulator = 0;
+    private long lastTime = -1;
+    private volatile boolean running;
+
+    // Bumped whenever the game state changes; snapshots never delta across epochs, since a new
+    // game or the return to the menu wipes the obstacles anyway
+    private int epoch = 0;
+    private GameWorld.GameState lastState;
+
+    // Obstacles as they were before the current tick (ids, and y after one more fall), to tell
+    // which ones the tick destroyed
+    private int[] previousIds = new int[64];
+    private int[] previousNextY = new int[64];
+
+    // Ring of (tick, id) for every obstacle destroyed other than by falling off the screen;
+    // despawns after despawnsCompleteAfter are all still in it
+    private final long[] despawnTick = new long[DESPAWN_LOG];
+    private final int[] despawnId = new int[DESPAWN_LOG];
+    private long despawnCount = 0;
+    private long despawnsCompleteAfter = -1;
+    private int[] despawnScratch = new int[256];
+
+    private final long[] hashTick = new long[HASH_HISTORY];
+    private final long[] hashValue = new long[HASH_HISTORY];
+
+    private final ByteBuffer in = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+    private final ByteBuffer out = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+
+    // players is how many ships each game has, and so how many clients can join
+    public NetServer(GameWorld world, NetLink link, int players) {
+        this.world = world;
+        this.link = link;
+        this.tokens = new GameRandom(System.nanoTime());
+        world.setPlayerCount(players);
+        slots = new Client[Math.max(1, Math.min(GameWorld.MAX_PLAYERS, players))];
+        Arrays.fill(hashTick, -1);
+    }
+
+    // Read what has arrived, run the ticks that are due (sending snapshots as they come round),
+    // drop silent clients, and put out delayed packets that are due
+    public void update(long nowNanos) throws IOException {
+        receive(nowNanos);
+
+        if (lastTime < 0) lastTime = nowNanos;
+        accumulator += nowNanos - lastTime;
+        lastTime = nowNanos;
+        int ticks = 0;
+        while (accumulator >= Simulation.TICK_NANOS && ticks < MAX_TICKS_PER_UPDATE) {
+            tick(nowNanos);
+            accumulator -= Simulation.TICK_NANOS;
+            ticks++;
+        }
+        if (accumulator >= Simulation.TICK_NANOS) accumulator %= Simulation.TICK_NANOS;
+
+        for (Client client : slots) {
+            if (client != null && nowNanos - client.lastHeardNanos > CLIENT_TIMEOUT_NANOS) {
+                System.out.println("Client in slot " + client.slot + " timed out");
+                remove(client);
+            }
+        }
+        link.flush(nowNanos);
+    }
+
+    // Serve until close() is called from another thread
+    public void run() throws IOException {
+        running = true;
+        while (running) {
+            update(System.nanoTime());
+            // Wake often enough to pass on delayed packets close to when they are due
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        link.close();
+    }
+
+    private void receive(long nowNanos) throws IOException {
+        SocketAddress from;
+        while ((from = link.receive(in)) != null) {
+            int size = in.remaining();
+            try {
+                handle(from, nowNanos);
+            } catch (RuntimeException e) {
+                // Truncated or garbled datagram; UDP gives no guarantees, so just drop it
+                continue;
+            }
+            Client client = clients.get(from);
+            if (client != null) {
+                client.bytesIn += size;
+                client.packetsIn++;
+            }
+        }
+    }
+
+    private void handle(SocketAddress from, long nowNanos) throws IOException {
+        byte type = in.get();
+        if (type == NetProtocol.HELLO) {
+            if (in.get() != NetProtocol.VERSION) return;
+            welcome(from, in.getInt(), nowNanos);
+            return;
+        }
+        Client client = clients.get(from);
+        if (client == null || in.getInt() != client.token) return;
+        client.lastHeardNanos = nowNanos;
+        if (type == NetProtocol.INPUT) {
+            readInput(client);
+        } else if (type == NetProtocol.BYE) {
+            System.out.println("Client in slot " + client.slot + " left");
+            remove(client);
+        }
+    }
+
+    // A repeated HELLO (the WELCOME got lost) gets the same slot again
+    private void welcome(SocketAddress from, int nonce, long nowNanos) throws IOException {
+        Client client = clients.get(from);
+        if (client == null) {
+            int slot = 0;
+            while (slot < slots.length && slots[slot] != null) slot++;
+            if (slot == slots.length) {
+                out.clear();
+                out.put(NetProtocol.FULL).putInt(nonce);
+                out.flip();
+                link.send(out, from, nowNanos);
+                return;
+            }
+            client = new Client(from, slot, (int) tokens.nextLong(), nowNanos);
+            slots[slot] = client;
+            clients.put(from, client);
+            System.out.println("Client " + from + " joined in slot " + slot);
+        }
+        out.clear();
+        out.put(NetProtocol.WELCOME).putInt(nonce).putInt(client.token).put((byte) client.slot).put((byte) slots.length);
+        out.flip();
+        send(client, nowNanos);
+    }
+
+    private void readInput(Client client) {
+        client.ackTick = Math.max(client.ackTick, in.getInt());
+        int seq = in.getInt();
+        int count = in.get();
+        for (int k = 0; k < count; k++) {
+            int mask = in.get();
+            int s = seq - k;
+            if (s <= client.lastApplied) break;
+            client.inputMask[s % INPUT_BUFFER] = mask;
+            client.inputSeq[s % INPUT_BUFFER] = s;
+        }
+        client.newestSeq = Math.max(client.newestSeq, seq);
+    }
+
+    private void remove(Client client) {
+        slots[client.slot] = null;
+        clients.remove(client.address);
+    }
+
+    // The input the client sent for its next tick; if it hasn't arrived, the keys it last held
+    // stay held, and its inputs are used one tick later than they would have been
+    private int nextInput(Client client) {
+        if (client.newestSeq - client.lastApplied > MAX_INPUT_BACKLOG) {
+            client.lastApplied = client.newestSeq - MAX_INPUT_BACKLOG;
+        }
+        int next = client.lastApplied + 1;
+        int i = next % INPUT_BUFFER;
+        if (client.inputSeq[i] == next) {
+            client.held = client.inputMask[i];
+            client.lastApplied = next;
+            return client.held;
+        }
+        return client.held & ~EDGE_ACTIONS;
+    }
+
+    private void tick(long nowNanos) throws IOException {
+        List<Obstacle> obstacles = world.getObstacles();
+        int before = obstacles.size();
+        if (previousIds.length < before) {
+            previousIds = new int[before * 2];
+            previousNextY = new int[before * 2];
+        }
+        for (int i = 0; i < before; i++) {
+            Obstacle o = obstacles.get(i);
+            previousIds[i] = o.getId();
+            previousNextY[i] = o.getY() + o.getSpeed();
+        }
+
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = (i < slots.length && slots[i] != null) ? nextInput(slots[i]) : 0;
+        }
+        world.tick(inputs);
+
+        if (world.getGameState() != lastState) {
+            lastState = world.getGameState();
+            epoch++;
+        }
+        logDespawns(before);
+        recordHash();
+
+        if (world.getTick() % NetProtocol.SNAPSHOT_INTERVAL_TICKS == 0) {
+            for (Client client : slots) {
+                if (client != null) sendSnapshot(client, nowNanos);
+            }
+        }
+    }
+
+    // Both lists are in id order, so one merge finds the ids that are gone
+    private void logDespawns(int before) {
+        List<Obstacle> obstacles = world.getObstacles();
+        int j = 0;
+        for (int i = 0; i < before; i++) {
+            int id = previousIds[i];
+            while (j < obstacles.size() && obstacles.get(j).getId() < id) j++;
+            if (j < obstacles.size() && obstacles.get(j).getId() == id) continue;
+            // Clients cull what falls off the bottom on their own
+            if (previousNextY[i] > GamePanel.HEIGHT) continue;
+            int at = (int) (despawnCount % DESPAWN_LOG);
+            if (despawnCount >= DESPAWN_LOG) despawnsCompleteAfter = despawnTick[at];
+            despawnTick[at] = world.getTick();
+            despawnId[at] = id;
+            despawnCount++;
+        }
+    }
+
+    private void recordHash() {
+        long hash = 0;
+        List<Obstacle> obstacles = world.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle o = obstacles.get(i);
+            hash = NetProtocol.mixObstacle(hash, o.getId(), o.getX(), o.getY());
+        }
+        int at = (int) (world.getTick() % HASH_HISTORY);
+        hashTick[at] = world.getTick();
+        hashValue[at] = hash;
+    }
+
+    private void sendSnapshot(Client client, long nowNanos) throws IOException {
+        long tick = world.getTick();
+
+        // Delta against the newest acked snapshot if it is still on record, else start over
+        long baseTick = -1;
+        int baseCovered = 0;
+        if (client.ackTick >= 0) {
+            int b = (int) (client.ackTick % SENT_HISTORY);
+            if (client.sentTick[b] == client.ackTick && client.sentEpoch[b] == epoch
+                    && client.ackTick >= despawnsCompleteAfter) {
+                baseTick = client.ackTick;
+                baseCovered = client.sentCovered[b];
+            }
+        }
+        int despawns = (baseTick >= 0) ? collectDespawns(baseTick) : 0;
+
+        out.clear();
+        writeHeader(baseTick);
+        if (baseTick >= 0) {
+            int size = 0;
+            for (int k = 0, previous = 0; k < despawns; k++) {
+                size += NetProtocol.varIntSize(despawnScratch[k] - previous);
+                previous = despawnScratch[k];
+            }
+            // No room for the despawns and a few spawns: a full snapshot is the smaller packet
+            if (out.position() + size + 7 + 4 * NetProtocol.SPAWN_BYTES > NetProtocol.SNAPSHOT_BUDGET) {
+                baseTick = -1;
+                baseCovered = 0;
+                despawns = 0;
+                out.clear();
+                writeHeader(-1);
+            }
+        }
+
+        NetProtocol.putVarInt(out, despawns);
+        for (int k = 0, previous = 0; k < despawns; k++) {
+            NetProtocol.putVarInt(out, despawnScratch[k] - previous);
+            previous = despawnScratch[k];
+        }
+
+        // Spawn records in id order, as many as the budget allows
+        int countAt = out.position();
+        out.putShort((short) 0);
+        List<Obstacle> obstacles = world.getObstacles();
+        int first = firstIdAbove(obstacles, baseCovered);
+        int covered = baseCovered;
+        int written = 0;
+        boolean complete = true;
+        for (int i = first, previous = 0; i < obstacles.size(); i++) {
+            if (out.position() + NetProtocol.SPAWN_BYTES > NetProtocol.SNAPSHOT_BUDGET) {
+                complete = false;
+                break;
+            }
+            Obstacle o = obstacles.get(i);
+            NetProtocol.putVarInt(out, o.getId() - previous);
+            previous = o.getId();
+            out.putShort(NetProtocol.quantize(o.getX()));
+            out.putShort(NetProtocol.quantize(o.getY()));
+            out.put((byte) Math.min(o.getSpeed(), 255));
+            out.putShort((short) o.getSize());
+            out.put((byte) o.getFrame());
+            covered = o.getId();
+            written++;
+        }
+        if (complete && !obstacles.isEmpty()) covered = Math.max(covered, obstacles.get(obstacles.size() - 1).getId());
+        out.putShort(countAt, (short) written);
+        // Covered id and flags sit at a fixed offset in the header, after type, tick, base tick and epoch
+        out.putInt(1 + 4 + 4 + 1, covered);
+        out.put(1 + 4 + 4 + 1 + 4, (byte) (complete ? 0 : NetProtocol.PARTIAL));
+        out.flip();
+
+        int s = (int) (tick % SENT_HISTORY);
+        client.sentTick[s] = tick;
+        client.sentCovered[s] = covered;
+        client.sentEpoch[s] = epoch;
+        if (baseTick >= 0) client.deltaSnapshots++;
+        else client.fullSnapshots++;
+        send(client, nowNanos);
+    }
+
+    private void writeHeader(long baseTick) {
+        out.put(NetProtocol.SNAPSHOT);
+        out.putInt((int) world.getTick());
+        out.putInt((int) baseTick);
+        out.put((byte) epoch);
+        out.putInt(0);
+        out.put((byte) 0);
+        out.put((byte) world.getGameState().ordinal());
+        out.putInt(world.getScore());
+        out.putInt((int) world.getElapsedMillis());
+
+        int ships = (world.getPlayer() != null) ? world.getPlayerCount() : 0;
+        out.put((byte) ships);
+        for (int i = 0; i < ships; i++) {
+            Player ship = world.getShip(i);
+            out.putShort(NetProtocol.quantize(ship.getX()));
+            out.putShort(NetProtocol.quantize(ship.getY()));
+            out.put((byte) ship.getHealth());
+            out.putInt(i < slots.length && slots[i] != null ? slots[i].lastApplied : 0);
+        }
+
+        ProjectilePool projectiles = world.getProjectiles();
+        int shotsAt = out.position();
+        out.put((byte) 0);
+        int shots = 0;
+        for (int slot = 0; projectiles != null && slot < projectiles.getCapacity(); slot++) {
+            if (!projectiles.isActive(slot)) continue;
+            out.put((byte) slot);
+            out.putShort(NetProtocol.quantize(projectiles.getX(slot)));
+            out.putShort(NetProtocol.quantize(projectiles.getY(slot)));
+            shots++;
+        }
+        out.put(shotsAt, (byte) shots);
+    }
+
+    // Ids destroyed after baseTick, ascending, into despawnScratch. Ids above the base's covered id
+    // count too: the client may have had them from a newer snapshot than its base.
+    private int collectDespawns(long baseTick) {
+        int count = 0;
+        long oldest = Math.max(0, despawnCount - DESPAWN_LOG);
+        for (long n = despawnCount - 1; n >= oldest; n--) {
+            int at = (int) (n % DESPAWN_LOG);
+            if (despawnTick[at] <= baseTick) break;
+            if (count == despawnScratch.length) despawnScratch = Arrays.copyOf(despawnScratch, count * 2);
+            despawnScratch[count++] = despawnId[at];
+        }
+        Arrays.sort(despawnScratch, 0, count);
+        return count;
+    }
+
+    // Index of the first obstacle with an id above the given one; the list is in id order
+    private static int firstIdAbove(List<Obstacle> obstacles, int id) {
+        int lo = 0, hi = obstacles.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (obstacles.get(mid).getId() <= id) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void send(Client client, long nowNanos) throws IOException {
+        client.bytesOut += out.remaining();
+        client.packetsOut++;
+        link.send(out, client.address, nowNanos);
+    }
+
+    // Obstacle hash as of a recent tick, for checking clients; hasObstacleHash says if it is still kept
+    public boolean hasObstacleHash(long tick) {
+        return hashTick[(int) (tick % HASH_HISTORY)] == tick;
+    }
+
+    public long getObstacleHash(long tick) {
+        return hashValue[(int) (tick % HASH_HISTORY)];
+    }
+
+    // Connected clients, in slot order
+    public List<Client> getClients() {
+        List<Client> list = new ArrayList<>();
+        for (Client client : slots) {
+            if (client != null) list.add(client);
+        }
+        return list;
+    }
+
+    public GameWorld getWorld() { return world; }
+    public NetLink getLink() { return link; }
+}
@@ -1,40 +1,54 @@
 package spacegame;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.util.Random;
 import spacegame.GameObject;
 
 
 public class Obstacle implements GameObject {
 
-    // Size constants for all obstacles
+    // Default size and downward speed; waves from a SpawnDirector can override both per obstacle
     public static final int WIDTH = 20;
     public static final int HEIGHT = 20;
-    private static final int SPEED = 3; // Downward movement speed
+    public static final int SPEED = 3;
 
+    // Number of sprite variants; the image itself lives in a SpriteAtlas owned by the renderer
+    public static final int FRAME_COUNT = 4;
+
+    private int id;
     private int x, y;
-    private BufferedImage obstacleImage;
+    private int prevY;
+    private int frame;
+    private int speed;
+    private int size;
 
-    // Constructor initializes position and loads a random sprite from spriteSheet
-    public Obstacle(int startX, BufferedImage spriteSheet) {
-        this.x = startX;
-        this.y = 0;
+    // Constructor sets the start position and which sprite variant this obstacle shows
+    public Obstacle(int startX, int frame) {
+        this(startX, 0, frame);
+    }
+
+    public Obstacle(int startX, int startY, int frame) {
+        this(startX, startY, frame, SPEED, WIDTH);
+    }
+
+    // Square obstacle of the given edge length falling speed pixels per tick
+    public Obstacle(int startX, int startY, int frame, int speed, int size) {
+        reset(startX, startY, frame, speed, size);
+    }
 
-        if (spriteSheet != null) {
-            int spriteSize = 64; // Fixed sprite size in sheet
-            int spritesPerRow = spriteSheet.getWidth() / spriteSize;
-            Random rand = new Random();
-            int spriteIndex = rand.nextInt(4); // Randomly pick among 4 sprites
-            int sx = (spriteIndex % spritesPerRow) * spriteSize;
-            int sy = (spriteIndex / spritesPerRow) * spriteSize;
-            obstacleImage = spriteSheet.getSubimage(sx, sy, spriteSize, spriteSize);
-        }
+    // Start over as a new obstacle; GameWorld reuses obstacles that have left the world
+    public void reset(int startX, int startY, int frame, int speed, int size) {
+        this.x = startX;
+        this.y = startY;
+        this.prevY = startY;
+        this.frame = frame;
+        this.speed = speed;
+        this.size = size;
     }
 
     // Move the obstacle downward each frame
     public void update() {
-        y += SPEED;
+        prevY = y;
+        y += speed;
     }
 
     // Check if the obstacle has gone off screen
@@ -44,17 +58,18 @@ public class Obstacle implements GameObject {
 
     // Return bounding box for collision detection
     public Rectangle getBounds() {
-        return new Rectangle(x, y, WIDTH, HEIGHT);
+        return new Rectangle(x, y, size, size);
     }
 
-    // Draw the obstacle (image if available, else red rectangle)
+    // Draw the obstacle without a sprite (red rectangle)
     public void draw(Graphics g) {
-        if (obstacleImage != null) {
-            g.drawImage(obstacleImage, x, y, WIDTH, HEIGHT, null);
-        } else {
-            g.setColor(Color.RED);
-            g.fillRect(x, y, WIDTH, HEIGHT);
-        }
+        draw(g, 1.0f);
+    }
+
+    @Override
+    public void draw(Graphics g, float alpha) {
+        g.setColor(Color.RED);
+        g.fillRect(x, getY(alpha), size, size);
     }
 
 
@@ -66,4 +81,36 @@ public class Obstacle implements GameObject {
         return y;
     }
 
-}
\ No newline at end of file
+    // Vertical position blended between the last two ticks, for the renderer
+    public int getY(float alpha) {
+        return GameObject.lerp(prevY, y, alpha);
+    }
+
+    // Position before this tick's move, for interpolating outside the simulation
+    public int getPrevY() {
+        return prevY;
+    }
+
+    // Set by GameWorld on spawn: unique, and increasing in spawn order
+    void assignId(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getFrame() {
+        return frame;
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    // Edge length; obstacles are square
+    public int getSize() {
+        return size;
+    }
+
+}
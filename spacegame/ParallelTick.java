@@ -0,0 +1,70 @@
+package spacegame;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Spreads index ranges over a ForkJoinPool for the parts of a tick that touch each entity on
+// its own (movement, culling tests, particle integration). Work is only split down to GRAIN
+// items, so small worlds run on the calling thread and pay nothing but a size check.
+// Bodies must write only to their own indices; anything order-dependent is merged afterwards
+// by the caller, in index order, on the tick thread.
+public class ParallelTick {
+
+    public interface RangeBody {
+        void run(int from, int to);
+    }
+
+    static final int GRAIN = 2048;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+
+    public ParallelTick(int threads) {
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    // Run body over [0, count), returning once every slice is done
+    public void forRange(int count, RangeBody body) {
+        forRange(count, GRAIN, body);
+    }
+
+    // Same, for items heavy enough to be worth splitting below GRAIN (whole game instances, say)
+    public void forRange(int count, int grain, RangeBody body) {
+        if (count <= grain) {
+            body.run(0, count);
+        } else {
+            pool.invoke(new Slice(body, 0, count, grain));
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static final class Slice extends RecursiveAction {
+        private final RangeBody body;
+        private final int from, to, grain;
+
+        Slice(RangeBody body, int from, int to, int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Slice(body, from, mid, grain), new Slice(body, mid, to, grain));
+            }
+        }
+    }
+}
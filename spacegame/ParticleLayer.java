@@ -0,0 +1,90 @@
+package spacegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+// Draws explosion particles: groups them by alpha bucket, blends them into one offscreen
+// layer with precomputed colours and blits that layer once. Works on any set of particle
+// arrays, whether the live system's or a render snapshot's.
+public class ParticleLayer {
+
+    private static final int LIFETIME = ParticleSystem.LIFETIME;
+    private static final int SHADES = ParticleSystem.SHADES;
+    private static final int SIZE = 3;
+
+    // Every shade premultiplied once for every remaining-life alpha
+    private static final int[] FADE_ALPHA = new int[LIFETIME + 1];
+    private static final int[][] FADED_PALETTE = new int[LIFETIME + 1][SHADES];
+    static {
+        for (int life = 0; life <= LIFETIME; life++) {
+            int a = Math.round(255f * life / LIFETIME);
+            FADE_ALPHA[life] = a;
+            for (int shade = 0; shade < SHADES; shade++) {
+                FADED_PALETTE[life][shade] = (a << 24) | (a << 16) | ((shade * a / 255) << 8);
+            }
+        }
+    }
+
+    // Scratch for the per-frame counting sort by alpha bucket
+    private int[] drawOrder = new int[256];
+    private final int[] bucketStart = new int[LIFETIME + 2];
+
+    // Offscreen layer the particles are blended into, then blitted in one drawImage
+    private final BufferedImage layer = new BufferedImage(GamePanel.WIDTH, GamePanel.HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+    private final int[] layerPixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+
+    // Draw entries [0, count) whose life is above zero; the rest are skipped
+    public void draw(Graphics2D g, float[] x, float[] y, int[] life, short[] color, int count) {
+        if (drawOrder.length < count) drawOrder = new int[Math.max(count, drawOrder.length * 2)];
+
+        // Counting sort of live slots by remaining life, which is also their alpha bucket
+        Arrays.fill(bucketStart, 0);
+        int live = 0;
+        for (int i = 0; i < count; i++) {
+            if (life[i] > 0) {
+                bucketStart[life[i] + 1]++;
+                live++;
+            }
+        }
+        if (live == 0) return;
+        for (int b = 1; b < bucketStart.length; b++) bucketStart[b] += bucketStart[b - 1];
+        for (int i = 0; i < count; i++) {
+            if (life[i] > 0) drawOrder[bucketStart[life[i]]++] = i;
+        }
+
+        // Blend straight into a premultiplied layer; per-particle fillRect under a
+        // translucent composite costs microseconds each in the software pipeline
+        Arrays.fill(layerPixels, 0);
+
+        // bucketStart[b] now marks the end of bucket b
+        int start = 0;
+        for (int b = 1; b <= LIFETIME; b++) {
+            int end = bucketStart[b];
+            int[] shades = FADED_PALETTE[b];
+            int keep = 255 - FADE_ALPHA[b];
+            for (int k = start; k < end; k++) {
+                int i = drawOrder[k];
+                blendSquare((int) x[i], (int) y[i], shades[color[i]], keep);
+            }
+            start = end;
+        }
+        g.drawImage(layer, 0, 0, null);
+    }
+
+    // SRC_OVER of one premultiplied colour onto a SIZE x SIZE square of the layer
+    private void blendSquare(int px, int py, int src, int keep) {
+        int x0 = Math.max(px, 0), x1 = Math.min(px + SIZE, GamePanel.WIDTH);
+        int y0 = Math.max(py, 0), y1 = Math.min(py + SIZE, GamePanel.HEIGHT);
+        for (int row = y0; row < y1; row++) {
+            int base = row * GamePanel.WIDTH;
+            for (int col = x0; col < x1; col++) {
+                int dst = layerPixels[base + col];
+                int rb = ((dst & 0x00FF00FF) * keep >>> 8) & 0x00FF00FF;
+                int ag = ((dst >>> 8 & 0x00FF00FF) * keep) & 0xFF00FF00;
+                layerPixels[base + col] = src + (ag | rb);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package spacegame;
+
+import java.awt.*;
+import java.util.Arrays;
+
+// Every explosion particle in the world, stored as parallel primitive arrays.
+// Dead slots go on a free list for reuse; a ParticleLayer does the drawing.
+public class ParticleSystem {
+
+    public static final int PARTICLES_PER_EXPLOSION = 20;
+    public static final int MAX_CAPACITY = 65_536;
+
+    static final int LIFETIME = 30; // Lifetime in ticks
+    static final int SHADES = 155;  // Orange shades (255, 0..154, 0)
+    private static final int INITIAL_CAPACITY = 256;
+    // Life value parallel integration leaves on particles that burned out, until they are freed
+    private static final int BURNED_OUT = -1;
+
+    private final int maxCapacity;
+    private final GameRandom random;
+    private int perExplosion = PARTICLES_PER_EXPLOSION;
+
+    // Particle state; a slot is live while life > 0
+    private float[] x, y, dx, dy;
+    private int[] life;
+    private short[] color;
+
+    // Slots below highWater have been used at least once; freed ones are stacked in free
+    private int[] free;
+    private int freeCount = 0;
+    private int highWater = 0;
+    private int liveCount = 0;
+
+    private ParticleLayer layer;
+
+    public ParticleSystem(GameRandom random) {
+        this(random, MAX_CAPACITY);
+    }
+
+    public ParticleSystem(GameRandom random, int maxCapacity) {
+        this.random = random;
+        this.maxCapacity = maxCapacity;
+        int capacity = Math.min(INITIAL_CAPACITY, maxCapacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        dx = new float[capacity];
+        dy = new float[capacity];
+        life = new int[capacity];
+        color = new short[capacity];
+        free = new int[capacity];
+    }
+
+    // Burst of particles flying out from (px, py) in random directions
+    public void spawnExplosion(int px, int py) {
+        for (int n = 0; n < perExplosion; n++) {
+            int i = claimSlot();
+            if (i < 0) return; // Full: drop the rest of the burst
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double speed = random.nextDouble() * 3 + 1;
+            x[i] = px;
+            y[i] = py;
+            dx[i] = (float) (StrictMath.cos(angle) * speed); // StrictMath: same bits on every platform
+            dy[i] = (float) (StrictMath.sin(angle) * speed);
+            life[i] = LIFETIME;
+            color[i] = (short) random.nextInt(SHADES); // Random orange shade
+        }
+    }
+
+    // Move every live particle one tick and free the ones that burned out
+    public void update() {
+        for (int i = 0; i < highWater; i++) {
+            if (life[i] <= 0) continue;
+            x[i] += dx[i];
+            y[i] += dy[i];
+            if (--life[i] == 0) {
+                free[freeCount++] = i;
+                liveCount--;
+            }
+        }
+    }
+
+    // Same as update(), with integration split across the pool; burned-out slots are then freed
+    // in index order so the free list ends up exactly as the sequential pass leaves it
+    public void update(ParallelTick parallel) {
+        parallel.forRange(highWater, integrate);
+        for (int i = 0; i < highWater; i++) {
+            if (life[i] == BURNED_OUT) {
+                life[i] = 0;
+                free[freeCount++] = i;
+                liveCount--;
+            }
+        }
+    }
+
+    private final ParallelTick.RangeBody integrate = (from, to) -> {
+        for (int i = from; i < to; i++) {
+            if (life[i] <= 0) continue;
+            x[i] += dx[i];
+            y[i] += dy[i];
+            if (--life[i] == 0) life[i] = BURNED_OUT;
+        }
+    };
+
+    public void draw(Graphics2D g) {
+        if (liveCount == 0) return;
+        if (layer == null) layer = new ParticleLayer();
+        layer.draw(g, x, y, life, color, highWater);
+    }
+
+    // Copy the live particles, packed, into the given arrays (at least getLiveCount() long); returns the count
+    public int copyLive(float[] toX, float[] toY, int[] toLife, short[] toColor) {
+        int n = 0;
+        for (int i = 0; i < highWater; i++) {
+            if (life[i] <= 0) continue;
+            toX[n] = x[i];
+            toY[n] = y[i];
+            toLife[n] = life[i];
+            toColor[n] = color[i];
+            n++;
+        }
+        return n;
+    }
+
+    public void clear() {
+        Arrays.fill(life, 0, highWater, 0);
+        highWater = 0;
+        freeCount = 0;
+        liveCount = 0;
+    }
+
+    // Burst size for later explosions; particles draw from their own random stream, so
+    // changing this never changes the game itself
+    public void setPerExplosion(int count) {
+        this.perExplosion = count;
+    }
+
+    public int getPerExplosion() {
+        return perExplosion;
+    }
+
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    private int claimSlot() {
+        int i;
+        if (freeCount > 0) {
+            i = free[--freeCount];
+        } else {
+            if (highWater == x.length) {
+                if (x.length == maxCapacity) return -1;
+                grow(Math.min(x.length * 2, maxCapacity));
+            }
+            i = highWater++;
+        }
+        liveCount++;
+        return i;
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        life = Arrays.copyOf(life, capacity);
+        color = Arrays.copyOf(color, capacity);
+        free = Arrays.copyOf(free, capacity);
+    }
+}
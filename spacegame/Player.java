@@ -6,16 +6,26 @@ import java.awt.image.BufferedImage;
 public class Player implements GameObject {
     public static final int WIDTH = 40;
     public static final int HEIGHT = 40;
+    public static final int MAX_HEALTH = 3;
 
     private int x, y;
-    private int health = 3;
+    private int prevX;
+    private int health = MAX_HEALTH;
     private boolean canDash = true;
 
     private BufferedImage sprite;
 
     public Player(int x, int y) {
+        reset(x, y);
+    }
+
+    // Back to a fresh ship at the given position; GameWorld reuses its ship from game to game
+    public void reset(int x, int y) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.health = MAX_HEALTH;
+        this.canDash = true;
     }
 
     // Allow GamePanel to pass in the sprite
@@ -67,19 +77,32 @@ public class Player implements GameObject {
 
     public int getX() { return x; }
     public int getY() { return y; }
+    public int getPrevX() { return prevX; }
 
     @Override
     public void update() {
+        prevX = x;
         updateStatus();
     }
 
     @Override
     public void draw(Graphics g) {
+        draw(g, 1.0f);
+    }
+
+    @Override
+    public void draw(Graphics g, float alpha) {
+        int drawX = GameObject.lerp(prevX, x, alpha);
         if (sprite != null) {
-            g.drawImage(sprite, x, y, WIDTH, HEIGHT, null);
+            g.drawImage(sprite, drawX, y, WIDTH, HEIGHT, null);
         } else {
             g.setColor(Color.WHITE);
-            g.fillRect(x, y, WIDTH, HEIGHT);
+            g.fillRect(drawX, y, WIDTH, HEIGHT);
         }
     }
+
+    // Horizontal position blended between the last two ticks, for the renderer
+    public int getX(float alpha) {
+        return GameObject.lerp(prevX, x, alpha);
+    }
 }
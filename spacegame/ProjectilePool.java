@@ -0,0 +1,106 @@
+package spacegame;
+
+import java.awt.*;
+import java.util.Arrays;
+
+// All live projectiles, kept in preallocated slots of parallel primitive arrays.
+// Firing claims a free slot and leaving the screen frees it again, so rapid fire allocates nothing.
+public class ProjectilePool implements GameObject {
+
+    // Projectile size constants
+    public static final int WIDTH = 5; // Default Value is 5
+    public static final int HEIGHT = 10; // Default Value is 10
+    private static final int SPEED = 10; // Upward movement speed, DF is 10
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final int[] x, y, prevY;
+    private final boolean[] active;
+    private int activeCount = 0;
+
+    public ProjectilePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ProjectilePool(int capacity) {
+        x = new int[capacity];
+        y = new int[capacity];
+        prevY = new int[capacity];
+        active = new boolean[capacity];
+    }
+
+    // Launch a projectile from the given position; returns its slot, or -1 if every slot is in flight
+    public int fire(int startX, int startY) {
+        for (int i = 0; i < active.length; i++) {
+            if (!active[i]) {
+                x[i] = startX;
+                y[i] = startY;
+                prevY[i] = startY;
+                active[i] = true;
+                activeCount++;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Move every live projectile and free the ones that left the screen
+    public void update() {
+        for (int i = 0; i < active.length; i++) {
+            if (active[i]) {
+                prevY[i] = y[i];
+                y[i] -= SPEED;
+                if (y[i] < 0) hide(i); // Hide if off screen
+            }
+        }
+    }
+
+    public void draw(Graphics g) {
+        draw(g, 1.0f);
+    }
+
+    @Override
+    public void draw(Graphics g, float alpha) {
+        if (activeCount == 0) return;
+        g.setColor(Color.GREEN);
+        for (int i = 0; i < active.length; i++) {
+            if (active[i]) g.fillRect(x[i], GameObject.lerp(prevY[i], y[i], alpha), WIDTH, HEIGHT);
+        }
+    }
+
+    // Copy the live projectiles, packed, into the given arrays (at least getActiveCount() long); returns the count
+    public int copyActive(int[] toX, int[] toY, int[] toPrevY) {
+        int n = 0;
+        for (int i = 0; i < active.length; i++) {
+            if (!active[i]) continue;
+            toX[n] = x[i];
+            toY[n] = y[i];
+            toPrevY[n] = prevY[i];
+            n++;
+        }
+        return n;
+    }
+
+    public boolean isActive(int slot) {
+        return active[slot];
+    }
+
+    // Free a slot, e.g. after the projectile hit something
+    public void hide(int slot) {
+        if (active[slot]) {
+            active[slot] = false;
+            activeCount--;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(active, false);
+        activeCount = 0;
+    }
+
+    public int getX(int slot) { return x[slot]; }
+    public int getY(int slot) { return y[slot]; }
+    public int getPrevY(int slot) { return prevY[slot]; }
+    public int getCapacity() { return active.length; }
+    public int getActiveCount() { return activeCount; }
+}
@@ -0,0 +1,134 @@
+package spacegame;
+
+// Holds the frame rate by trading looks for time. After every frame it adds up what the frame
+// cost (its render time plus the share of a simulation tick each frame has to carry) against the
+// frame budget, and judges the average over a window of frames: a window over budget drops one
+// quality level straight away, while stepping back up takes several windows in a row well under
+// it, so the level doesn't flap around the threshold. Every change is logged. A forced level pins
+// quality for good, for benchmarking or slow machines.
+public class QualityGovernor {
+
+    public enum Level {
+        // Particles per explosion, percent of stars drawn, percent of dash trail steps, smooth sprite scaling
+        LOW(5, 25, 0, false),
+        MEDIUM(10, 50, 50, false),
+        HIGH(ParticleSystem.PARTICLES_PER_EXPLOSION, 100, 100, true);
+
+        public final int particlesPerExplosion;
+        public final int starPercent;
+        public final int trailPercent;
+        public final boolean smoothSprites;
+
+        Level(int particlesPerExplosion, int starPercent, int trailPercent, boolean smoothSprites) {
+            this.particlesPerExplosion = particlesPerExplosion;
+            this.starPercent = starPercent;
+            this.trailPercent = trailPercent;
+            this.smoothSprites = smoothSprites;
+        }
+
+        public int starCount(int stars) {
+            return stars * starPercent / 100;
+        }
+
+        // Never less than one step, so a dash always shows
+        public int trailSteps(int fullSteps) {
+            return Math.max(1, fullSteps * trailPercent / 100);
+        }
+
+        Level lower() {
+            return (this == LOW) ? LOW : values()[ordinal() - 1];
+        }
+
+        Level higher() {
+            return (this == HIGH) ? HIGH : values()[ordinal() + 1];
+        }
+
+        // "low", "medium" or "high", any case
+        public static Level parse(String name) {
+            return valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    // Frames averaged per decision, about half a second at 60 fps
+    private static final int WINDOW_FRAMES = 30;
+    // Share of the frame budget above which quality drops, and below which it may rise again
+    private static final double DOWNGRADE_LOAD = 0.9;
+    private static final double UPGRADE_LOAD = 0.5;
+    // Windows in a row under UPGRADE_LOAD before stepping up
+    private static final int UPGRADE_WINDOWS = 4;
+
+    private final FrameSource source;
+    private final GameRenderer renderer;
+    private final long frameNanos;
+    private final double ticksPerFrame;
+    private final boolean forced;
+    private Level level;
+
+    private long windowRender, windowTick;
+    private int windowFrames = 0;
+    private int quietWindows = 0;
+    // The window after a change still holds frames drawn at the old level, so it is thrown away
+    private boolean settling = false;
+
+    // forced == null lets the governor choose, starting from HIGH
+    public QualityGovernor(FrameSource source, GameRenderer renderer, int targetFps, Level forced) {
+        this.source = source;
+        this.renderer = renderer;
+        this.frameNanos = 1_000_000_000L / targetFps;
+        this.ticksPerFrame = (double) frameNanos / Simulation.TICK_NANOS;
+        this.forced = (forced != null);
+        this.level = this.forced ? forced : Level.HIGH;
+        apply();
+        if (this.forced) System.out.println("Quality forced to " + level);
+    }
+
+    // Front ends call this once a frame is drawn and its render time recorded. With the simulation
+    // on its own thread the tick time isn't strictly the frame's, but it still competes for the CPU.
+    public void onFrame(Metrics metrics) {
+        if (forced) return;
+        windowRender += metrics.getLast(Metrics.Phase.RENDER);
+        windowTick += metrics.getLast(Metrics.Phase.TICK);
+        if (++windowFrames < WINDOW_FRAMES) return;
+
+        double render = (double) windowRender / windowFrames;
+        double tick = (double) windowTick / windowFrames * ticksPerFrame;
+        double load = (render + tick) / frameNanos;
+        windowRender = 0;
+        windowTick = 0;
+        windowFrames = 0;
+        if (settling) {
+            settling = false;
+            return;
+        }
+
+        if (load > DOWNGRADE_LOAD && level != Level.LOW) {
+            change(level.lower(), render, tick);
+        } else if (load < UPGRADE_LOAD && level != Level.HIGH) {
+            if (++quietWindows >= UPGRADE_WINDOWS) change(level.higher(), render, tick);
+        } else {
+            quietWindows = 0;
+        }
+    }
+
+    private void change(Level to, double render, double tick) {
+        System.out.printf("Quality %s -> %s: render %.1f ms + tick %.1f ms per frame against a %.1f ms budget%n",
+                level, to, render / 1e6, tick / 1e6, frameNanos / 1e6);
+        level = to;
+        quietWindows = 0;
+        settling = true;
+        apply();
+    }
+
+    private void apply() {
+        renderer.setQuality(level);
+        source.setQuality(level);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public boolean isForced() {
+        return forced;
+    }
+}
@@ -0,0 +1,43 @@
+package spacegame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Triple buffer of render snapshots between one writer (the simulation) and one reader (the
+// renderer). The writer fills its back snapshot and swaps it into the shared middle slot; the
+// reader swaps the middle slot for its front snapshot only when something new is there. Both
+// sides are a single atomic exchange, so neither ever blocks or sees a half-written snapshot.
+public class RenderBuffer {
+
+    // Middle slot: snapshot index in the low bits, FRESH set while the reader hasn't taken it
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final RenderSnapshot[] snapshots = { new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot() };
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;   // Writer's
+    private int front = 2;  // Reader's
+
+    // Writer: capture the world into the back snapshot and make it the latest
+    public void publish(GameWorld world, long tickNanos, long inputNanos) {
+        snapshots[back].capture(world, tickNanos);
+        snapshots[back].inputNanos = inputNanos;
+        swap();
+    }
+
+    // Writer that fills snapshots itself rather than from a world: write into back(), then swap()
+    public RenderSnapshot back() {
+        return snapshots[back];
+    }
+
+    public void swap() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // Reader: the newest published snapshot; stays valid until the next call
+    public RenderSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+}
@@ -0,0 +1,176 @@
+package spacegame;
+
+import java.util.List;
+
+// Everything one frame needs from the world, copied out at the end of a tick into plain
+// primitive arrays. The renderer only ever reads a snapshot, never the live world, so the
+// simulation is free to run on another thread. Arrays grow as needed and are reused, so
+// capturing allocates nothing once a snapshot has seen the largest world it will hold.
+public class RenderSnapshot {
+
+    // Which tick this is, and the (simulation clock) time it stands for; see alphaAt
+    long tick;
+    long tickNanos;
+    // Key press this snapshot is the first to show, or 0; see takeInputNanos
+    long inputNanos;
+
+    GameWorld.GameState state = GameWorld.GameState.MENU;
+    int score, health;
+    long elapsedMillis;
+
+    boolean hasPlayer;
+    int playerX, playerPrevX, playerY;
+
+    // Co-op ships other than the player's own that are still in the game
+    int otherShipCount;
+    int[] otherShipX = new int[GameWorld.MAX_PLAYERS], otherShipPrevX = new int[GameWorld.MAX_PLAYERS];
+    int[] otherShipY = new int[GameWorld.MAX_PLAYERS];
+
+    // Dash trail steps oldest first, with their age in ticks
+    int trailCount, trailFadeTicks;
+    int[] trailX = new int[DashTrail.DEFAULT_FADE_TICKS], trailY = new int[DashTrail.DEFAULT_FADE_TICKS];
+    int[] trailAge = new int[DashTrail.DEFAULT_FADE_TICKS];
+
+    int projectileCount;
+    int[] projectileX = new int[ProjectilePool.DEFAULT_CAPACITY];
+    int[] projectileY = new int[ProjectilePool.DEFAULT_CAPACITY];
+    int[] projectilePrevY = new int[ProjectilePool.DEFAULT_CAPACITY];
+
+    int obstacleCount;
+    int[] obstacleX = new int[64], obstacleY = new int[64], obstaclePrevY = new int[64];
+    int[] obstacleFrame = new int[64], obstacleSize = new int[64];
+
+    int particleCount;
+    float[] particleX = new float[256], particleY = new float[256];
+    int[] particleLife = new int[256];
+    short[] particleColor = new short[256];
+
+    int starCount;
+    long starVersion;
+    int[] starX = new int[0], starY = new int[0], starBrightness = new int[0];
+
+    // Copy the world as it stands after its latest tick
+    public void capture(GameWorld world, long tickNanos) {
+        this.tick = world.getTick();
+        this.tickNanos = tickNanos;
+        state = world.getGameState();
+        score = world.getScore();
+        elapsedMillis = world.getElapsedMillis();
+
+        Player player = world.getPlayer();
+        hasPlayer = player != null;
+        if (hasPlayer) {
+            playerX = player.getX();
+            playerPrevX = player.getPrevX();
+            playerY = player.getY();
+            health = player.getHealth();
+        } else {
+            health = 0;
+        }
+        otherShipCount = 0;
+        for (int i = 1; hasPlayer && i < world.getPlayerCount(); i++) {
+            Player ship = world.getShip(i);
+            if (ship.getHealth() > 0) addOtherShip(ship.getX(), ship.getPrevX(), ship.getY());
+        }
+
+        DashTrail trail = world.getDashTrail();
+        trailFadeTicks = trail.getFadeTicks();
+        if (trailX.length < trailFadeTicks) {
+            trailX = new int[trailFadeTicks];
+            trailY = new int[trailFadeTicks];
+            trailAge = new int[trailFadeTicks];
+        }
+        trailCount = trail.copyTo(trailX, trailY, trailAge, tick);
+
+        ProjectilePool projectiles = world.getProjectiles();
+        if (projectiles != null) {
+            ensureProjectileCapacity(projectiles.getCapacity());
+            projectileCount = projectiles.copyActive(projectileX, projectileY, projectilePrevY);
+        } else {
+            projectileCount = 0;
+        }
+
+        List<Obstacle> obstacles = world.getObstacles();
+        obstacleCount = obstacles.size();
+        ensureObstacleCapacity(obstacleCount);
+        for (int i = 0; i < obstacleCount; i++) {
+            Obstacle o = obstacles.get(i);
+            obstacleX[i] = o.getX();
+            obstacleY[i] = o.getY();
+            obstaclePrevY[i] = o.getPrevY();
+            obstacleFrame[i] = o.getFrame();
+            obstacleSize[i] = o.getSize();
+        }
+
+        copyEffects(world.getParticles(), world.getStars());
+    }
+
+    // Particles and stars, which a network client keeps locally rather than getting from a world
+    void copyEffects(ParticleSystem particles, Starfield stars) {
+        if (particleX.length < particles.getLiveCount()) {
+            int capacity = Math.max(particles.getLiveCount(), particleX.length * 2);
+            particleX = new float[capacity];
+            particleY = new float[capacity];
+            particleLife = new int[capacity];
+            particleColor = new short[capacity];
+        }
+        particleCount = particles.copyLive(particleX, particleY, particleLife, particleColor);
+
+        // Stars are copied whole; a dense field is the bulk of a snapshot, but still one memcpy per array
+        starCount = stars.getCount();
+        if (starX.length < starCount) {
+            starX = new int[starCount];
+            starY = new int[starCount];
+            starBrightness = new int[starCount];
+        }
+        stars.copyTo(starX, starY, starBrightness);
+        starVersion = stars.getVersion();
+    }
+
+    void ensureProjectileCapacity(int capacity) {
+        if (projectileX.length < capacity) {
+            projectileX = new int[capacity];
+            projectileY = new int[capacity];
+            projectilePrevY = new int[capacity];
+        }
+    }
+
+    void ensureObstacleCapacity(int count) {
+        if (obstacleX.length < count) {
+            int capacity = Math.max(count, obstacleX.length * 2);
+            obstacleX = new int[capacity];
+            obstacleY = new int[capacity];
+            obstaclePrevY = new int[capacity];
+            obstacleFrame = new int[capacity];
+            obstacleSize = new int[capacity];
+        }
+    }
+
+    void addOtherShip(int x, int prevX, int y) {
+        otherShipX[otherShipCount] = x;
+        otherShipPrevX[otherShipCount] = prevX;
+        otherShipY[otherShipCount] = y;
+        otherShipCount++;
+    }
+
+    // Interpolation factor for drawing at nowNanos: how far the next tick has got, in [0, 1]
+    public float alphaAt(long nowNanos) {
+        float alpha = (float) (nowNanos - tickNanos) / Simulation.TICK_NANOS;
+        return Math.max(0f, Math.min(1f, alpha));
+    }
+
+    // The reader's side: the key press this frame answers, once; 0 if none or already taken
+    public long takeInputNanos() {
+        long nanos = inputNanos;
+        inputNanos = 0;
+        return nanos;
+    }
+
+    public long getTick() { return tick; }
+    public GameWorld.GameState getGameState() { return state; }
+    public int getScore() { return score; }
+    public int getHealth() { return health; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public int getObstacleCount() { return obstacleCount; }
+    public int getParticleCount() { return particleCount; }
+}
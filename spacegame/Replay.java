@@ -0,0 +1,152 @@
+package spacegame;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// A recorded session: the world seed and the settings that change play, plus the input bits of
+// every tick. Since the simulation is deterministic, that is enough to re-simulate the whole
+// session headless and check it ends in exactly the same state.
+//
+// File format (big-endian): magic "SFRP", version, seed, star count, wave set name (UTF),
+// flags byte, tick count, then (input byte, varint run length) pairs covering every tick,
+// then the final checksum.
+public class Replay {
+
+    private static final int MAGIC = 0x53465250; // "SFRP"
+    // 2: checksum also covers obstacle speed and size; wave set and invulnerability in the header
+    // 3: shots and ships collide along their whole path each tick; collision mode in the header
+    private static final short VERSION = 3;
+
+    // Header flag bits
+    private static final int FLAG_INVULNERABLE = 1;
+    private static final int FLAG_DISCRETE_COLLISION = 2;
+
+    private final long seed;
+    private final int starCount;
+    // SpawnDirector name: "classic", a bundled wave set or a config file path
+    private final String waves;
+    private final int flags;
+    private byte[] inputs = new byte[4096];
+    private int tickCount = 0;
+    private long finalChecksum;
+
+    public Replay(long seed, int starCount) {
+        this(seed, starCount, SpawnDirector.classic().getName(), 0);
+    }
+
+    private Replay(long seed, int starCount, String waves, int flags) {
+        this.seed = seed;
+        this.starCount = starCount;
+        this.waves = waves;
+        this.flags = flags;
+    }
+
+    // Start a replay matching a freshly created world, once its waves, invulnerability and collision mode are set
+    public static Replay startFor(GameWorld world) {
+        int flags = (world.isInvulnerable() ? FLAG_INVULNERABLE : 0)
+                | (world.isSweptCollision() ? 0 : FLAG_DISCRETE_COLLISION);
+        return new Replay(world.getSeed(), world.getStarCount(), world.getSpawnDirector().getName(), flags);
+    }
+
+    // Called after each tick with the input it ran on
+    public synchronized void record(int input) {
+        if (tickCount == inputs.length) inputs = Arrays.copyOf(inputs, inputs.length * 2);
+        inputs[tickCount++] = (byte) input;
+    }
+
+    // Seal the recording with the state the world ended in; the world must no longer be ticking
+    public synchronized void finish(GameWorld world) {
+        finalChecksum = world.checksum();
+    }
+
+    public synchronized void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(seed);
+            out.writeInt(starCount);
+            out.writeUTF(waves);
+            out.writeByte(flags);
+            out.writeInt(tickCount);
+            for (int i = 0; i < tickCount; ) {
+                int run = 1;
+                while (i + run < tickCount && inputs[i + run] == inputs[i]) run++;
+                out.writeByte(inputs[i]);
+                writeVarInt(out, run);
+                i += run;
+            }
+            out.writeLong(finalChecksum);
+        }
+    }
+
+    public static Replay read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a replay file: " + path);
+            short version = in.readShort();
+            if (version != VERSION) throw new IOException("Unsupported replay version " + version);
+            Replay replay = new Replay(in.readLong(), in.readInt(), in.readUTF(), in.readUnsignedByte());
+            int ticks = in.readInt();
+            replay.inputs = new byte[Math.max(ticks, 1)];
+            while (replay.tickCount < ticks) {
+                byte input = in.readByte();
+                int run = readVarInt(in);
+                if (run <= 0 || replay.tickCount + run > ticks) throw new IOException("Corrupt replay run");
+                Arrays.fill(replay.inputs, replay.tickCount, replay.tickCount + run, input);
+                replay.tickCount += run;
+            }
+            replay.finalChecksum = in.readLong();
+            return replay;
+        }
+    }
+
+    // Input source that feeds the recorded ticks back in order, then nothing
+    public InputSource playback() {
+        return new InputSource() {
+            private int next = 0;
+
+            @Override
+            public int poll() {
+                return (next < tickCount) ? inputs[next++] : 0;
+            }
+        };
+    }
+
+    // Re-simulate from the seed as fast as possible; true if it ends in the recorded state.
+    // Fails if the wave set it was recorded with can no longer be found.
+    public boolean verify() throws IOException {
+        GameWorld world = new GameWorld(seed, starCount);
+        world.setSpawnDirector(waves.equals(SpawnDirector.classic().getName())
+                ? SpawnDirector.classic() : SpawnDirector.load(waves));
+        world.setInvulnerable((flags & FLAG_INVULNERABLE) != 0);
+        world.setSweptCollision((flags & FLAG_DISCRETE_COLLISION) == 0);
+        Simulation simulation = new Simulation(world, playback());
+        simulation.runTicks(tickCount);
+        return world.checksum() == finalChecksum;
+    }
+
+    public long getSeed() { return seed; }
+    public int getStarCount() { return starCount; }
+    public String getWaves() { return waves; }
+    public int getTickCount() { return tickCount; }
+    public long getFinalChecksum() { return finalChecksum; }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Corrupt varint");
+    }
+}
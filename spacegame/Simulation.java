@@ -0,0 +1,158 @@
+package spacegame;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Fixed-timestep driver for a GameWorld.
+// Real elapsed time is fed into an accumulator and drained in whole ticks; whatever is
+// left over becomes the interpolation factor the renderer uses between the last two ticks.
+// Front ends can drive it from their own loop, or let it run on a thread of its own and
+// draw from the render snapshots it publishes.
+public class Simulation implements FrameSource {
+
+    public static final long TICK_NANOS = GameWorld.TICK_MILLIS * 1_000_000L;
+
+    // Cap on catch-up work per frame so a long stall can't snowball into a longer one
+    private static final int MAX_TICKS_PER_ADVANCE = 5;
+
+    private final GameWorld world;
+    private final InputSource input;
+    private Replay recording;
+    private long accumulator = 0;
+    private long lastTime = -1;
+
+    private RenderBuffer renderBuffer;
+    // Oldest key press taken since the last publish, for input-to-photon latency
+    private long pendingInputNanos = 0;
+    private Thread thread;
+    private volatile boolean running;
+
+    // Quality asked for by the front end, and what the world was last set to; applied between
+    // ticks on whichever thread runs them. fullTrailSteps is the trail the world was set up with.
+    private volatile QualityGovernor.Level quality;
+    private QualityGovernor.Level appliedQuality;
+    private int fullTrailSteps;
+
+    public Simulation(GameWorld world, InputSource input) {
+        this.world = world;
+        this.input = input;
+    }
+
+    // Start capturing every tick's input into the given replay
+    public void record(Replay replay) {
+        this.recording = replay;
+    }
+
+    // One tick with freshly polled input; the recording gets exactly the bits the tick ran on,
+    // so taps shorter than a tick replay too
+    public void step() {
+        if (quality != appliedQuality) applyQuality(quality);
+        int mask = input.poll();
+        if (pendingInputNanos == 0) pendingInputNanos = input.pollEventNanos();
+        Metrics metrics = world.getMetrics();
+        long start = metrics.beginTick();
+        world.tick(mask);
+        metrics.endTick(start, world.getObstacles().size(), world.getParticles().getLiveCount());
+        if (recording != null) recording.record(mask);
+    }
+
+    // Front ends call this every frame; a threaded simulation advances itself
+    @Override
+    public void update(long nowNanos) {
+        if (!isThreaded()) advance(nowNanos);
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return world.getMetrics();
+    }
+
+    @Override
+    public void setQuality(QualityGovernor.Level level) {
+        this.quality = level;
+    }
+
+    // Neither particles nor the trail feed the checksum, so replays still verify at any quality
+    private void applyQuality(QualityGovernor.Level level) {
+        if (appliedQuality == null) fullTrailSteps = world.getDashTrail().getSteps();
+        world.getParticles().setPerExplosion(level.particlesPerExplosion);
+        int steps = level.trailSteps(fullTrailSteps);
+        if (steps != world.getDashTrail().getSteps()) world.setDashTrail(steps, DashTrail.fadeTicksFor(steps));
+        appliedQuality = level;
+    }
+
+    // Run however many ticks the time since the last call covers; returns the number run
+    public int advance(long nowNanos) {
+        if (lastTime < 0) lastTime = nowNanos;
+        accumulator += nowNanos - lastTime;
+        lastTime = nowNanos;
+
+        int ticks = 0;
+        while (accumulator >= TICK_NANOS && ticks < MAX_TICKS_PER_ADVANCE) {
+            step();
+            accumulator -= TICK_NANOS;
+            ticks++;
+        }
+        // Drop time we refused to simulate rather than carrying it forever
+        if (accumulator >= TICK_NANOS) accumulator %= TICK_NANOS;
+        // Only the last tick of a catch-up batch is ever drawn, so only it is published
+        if (ticks > 0 && renderBuffer != null) {
+            renderBuffer.publish(world, nowNanos - accumulator, pendingInputNanos);
+            pendingInputNanos = 0;
+        }
+        return ticks;
+    }
+
+    // From now on publish a render snapshot whenever advance() runs a tick; returns the buffer
+    // to read them from. Call before the simulation thread starts.
+    @Override
+    public RenderBuffer publishSnapshots() {
+        if (renderBuffer == null) {
+            renderBuffer = new RenderBuffer();
+            renderBuffer.publish(world, System.nanoTime(), 0);
+        }
+        return renderBuffer;
+    }
+
+    // Run advance() on a dedicated thread from now on; front ends then only read snapshots
+    public void startThread() {
+        running = true;
+        thread = new Thread(this::runLoop, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Stop the simulation thread and wait for its current tick to finish
+    public void stopThread() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isThreaded() {
+        return thread != null;
+    }
+
+    private void runLoop() {
+        while (running) {
+            advance(System.nanoTime());
+            // Sleep until the next tick is due; parkNanos may wake early, which only costs a loop
+            LockSupport.parkNanos(TICK_NANOS - accumulator);
+        }
+    }
+
+    // Headless: run ticks back to back with no clock at all
+    public void runTicks(long count) {
+        for (long i = 0; i < count; i++) {
+            step();
+        }
+    }
+
+    public GameWorld getWorld() {
+        return world;
+    }
+}
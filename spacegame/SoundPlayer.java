@@ -1,19 +1,137 @@
 package spacegame;
 
-import javax.sound.sampled.*;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+// Sound bank: every effect is decoded once up front into a small pool of voices.
+// play() only hands the request to a background thread, which rewinds and restarts the
+// voice that was started longest ago.
 public class SoundPlayer {
 
-    public static void play(String resourcePath) {
+    public enum Sound {
+        FIRE("/Sounds/pewpew.wav"),
+        POP("/Sounds/poppy.wav");
+
+        private final String resourcePath;
+
+        Sound(String resourcePath) {
+            this.resourcePath = resourcePath;
+        }
+
+        public String getResourcePath() { return resourcePath; }
+    }
+
+    // A sound decoded to raw samples, ready to open as voices
+    public static class Pcm {
+        final AudioFormat format;
+        final byte[] data;
+
+        Pcm(AudioFormat format, byte[] data) {
+            this.format = format;
+            this.data = data;
+        }
+    }
+
+    public static final int DEFAULT_VOICES = 4;
+
+    // voices[sound][n], and the next voice to use per sound
+    private final AudioBackend.Voice[][] voices = new AudioBackend.Voice[Sound.values().length][];
+    private final int[] nextVoice = new int[Sound.values().length];
+    private final Runnable[] triggers = new Runnable[Sound.values().length];
+
+    private final ExecutorService audioThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sound");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SoundPlayer(AudioBackend backend, int voicesPerSound) {
+        this(backend, voicesPerSound, decodeAll());
+    }
+
+    // decoded[sound.ordinal()]; a null entry leaves that sound silent
+    public SoundPlayer(AudioBackend backend, int voicesPerSound, Pcm[] decoded) {
+        for (Sound sound : Sound.values()) {
+            int id = sound.ordinal();
+            voices[id] = open(backend, sound, decoded[id], voicesPerSound);
+            triggers[id] = () -> trigger(id);
+        }
+    }
+
+    // Real audio when a mixer is available, silence otherwise
+    public static SoundPlayer createDefault() {
+        return new SoundPlayer(defaultBackend(), DEFAULT_VOICES);
+    }
+
+    // Java Sound if a clip can be had; probing the mixer is slow, so Assets does it off the EDT
+    public static AudioBackend defaultBackend() {
+        try {
+            AudioSystem.getClip().close();
+            return new JavaSoundBackend();
+        } catch (Exception | LinkageError e) {
+            System.err.println("No audio device, sound disabled: " + e.getMessage());
+            return AudioBackend.NULL;
+        }
+    }
+
+    public static Pcm decode(Sound sound) throws Exception {
+        try (InputStream in = SoundPlayer.class.getResourceAsStream(sound.resourcePath)) {
+            if (in == null) throw new IllegalStateException("missing resource");
+            AudioInputStream stream = AudioSystem.getAudioInputStream(new BufferedInputStream(in));
+            return new Pcm(stream.getFormat(), stream.readAllBytes());
+        }
+    }
+
+    private static Pcm[] decodeAll() {
+        Pcm[] decoded = new Pcm[Sound.values().length];
+        for (Sound sound : Sound.values()) {
+            try {
+                decoded[sound.ordinal()] = decode(sound);
+            } catch (Exception e) {
+                System.err.println("Error loading sound: " + sound.resourcePath);
+                e.printStackTrace();
+            }
+        }
+        return decoded;
+    }
+
+    private static AudioBackend.Voice[] open(AudioBackend backend, Sound sound, Pcm pcm, int count) {
+        if (pcm == null) return new AudioBackend.Voice[0];
         try {
-            AudioInputStream stream = AudioSystem.getAudioInputStream(
-                    SoundPlayer.class.getResource(resourcePath));
-            Clip clip = AudioSystem.getClip();
-            clip.open(stream);
-            clip.start();
+            AudioBackend.Voice[] pool = new AudioBackend.Voice[count];
+            for (int i = 0; i < count; i++) {
+                pool[i] = backend.open(pcm.format, pcm.data);
+            }
+            return pool;
         } catch (Exception e) {
-            System.err.println("Error playing sound: " + resourcePath);
+            System.err.println("Error opening sound: " + sound.resourcePath);
             e.printStackTrace();
+            return new AudioBackend.Voice[0];
+        }
+    }
+
+    // Safe to call from the game thread; never blocks on the audio device
+    public void play(Sound sound) {
+        if (voices[sound.ordinal()].length > 0) audioThread.execute(triggers[sound.ordinal()]);
+    }
+
+    // Voices are used round robin, so the next one is always the one started longest ago;
+    // if it is still playing it gets cut off (voice stealing)
+    private void trigger(int id) {
+        AudioBackend.Voice[] pool = voices[id];
+        pool[nextVoice[id]].restart();
+        nextVoice[id] = (nextVoice[id] + 1) % pool.length;
+    }
+
+    public void close() {
+        audioThread.shutdownNow();
+        for (AudioBackend.Voice[] pool : voices) {
+            for (AudioBackend.Voice voice : pool) voice.close();
         }
     }
 }
@@ -1,20 +1,329 @@
 package spacegame;
 
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class SpaceGame extends JFrame {
-    public SpaceGame() {
+
+    // Launch options, parsed from the command line
+    static class Options {
+        int starCount = Starfield.DEFAULT_STARS;
+        boolean activeRendering = false;
+        int targetFps = GameCanvas.DEFAULT_FPS;
+        long seed = System.nanoTime();
+        Path recordTo;
+        Path replay;
+        Path metricsCsv = Paths.get("spacegame-metrics.csv");
+        SpawnDirector spawner = SpawnDirector.classic();
+        boolean autopilot = false;
+        boolean invulnerable = false;
+        boolean discreteCollision = false;
+        int threads = 1;
+        boolean simulationThread = false;
+        Path keyBindings;
+        int trailSteps = DashTrail.DEFAULT_STEPS;
+        int serverPort = -1;
+        int players = 2;
+        String connect;
+        NetConditions netConditions = NetConditions.NONE;
+        // null = adjust to the frame rate
+        QualityGovernor.Level quality;
+
+        static final String USAGE = """
+                Usage: java spacegame.SpaceGame [options]
+                  --dense-stars   100k-star background instead of the usual 200
+                  --active        render on a dedicated thread through a BufferStrategy
+                  --fps=N         frame cap for --active, 0 = uncapped
+                  --seed=N        world seed (random by default)
+                  --record=FILE   write a replay of the session when the window closes
+                  --replay=FILE   re-simulate a replay headless and check it matches, then exit
+                  --metrics=FILE  where to write the timing summary on exit (default spacegame-metrics.csv)
+                  --waves=NAME    spawn waves from a .properties file, or one bundled under Waves/ (e.g. stress)
+                  --autopilot     let the game play itself
+                  --god           hits cost no health
+                  --discrete      collide at end-of-tick positions only, as before swept collision
+                  --stress        shorthand for --waves=stress --autopilot --god
+                  --threads=N     spread the per-entity parts of each tick over N threads (default 1)
+                  --sim-thread    run the simulation on its own thread; frames draw from its snapshots
+                  --keys=FILE     key bindings, e.g. fire = UP, W, SPACE (see InputManager.loadBindings)
+                  --trail=N       dash trail steps (default 6); each still takes four ticks longer to fade
+                  --quality=LEVEL low, medium or high to pin the effects quality, or auto (default) to hold the frame rate
+                  --server[=PORT] run a headless co-op server (default port 47800) instead of a window
+                  --players=N     ships in each co-op game on the server, 1-4 (default 2)
+                  --connect=HOST[:PORT]  join a co-op server rather than playing locally
+                  --netsim=MS,JITTER,LOSS  delay, jitter and drop this end's outgoing packets, e.g. 50,10,0.05
+                """;
+
+        // A flag with a bad value stops the launch, with the usage, rather than surfacing as a stack trace
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (String arg : args) {
+                try {
+                    apply(o, arg);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Bad option " + arg + ": " + e.getMessage());
+                    System.err.print(USAGE);
+                    System.exit(1);
+                }
+            }
+            return o;
+        }
+
+        private static void apply(Options o, String arg) throws IOException {
+            if (arg.equals("--dense-stars")) o.starCount = Starfield.DENSE_STARS;
+            else if (arg.equals("--active")) o.activeRendering = true;
+            else if (arg.startsWith("--fps=")) o.targetFps = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--seed=")) o.seed = Long.parseLong(value(arg));
+            else if (arg.startsWith("--record=")) o.recordTo = Paths.get(value(arg));
+            else if (arg.startsWith("--replay=")) o.replay = Paths.get(value(arg));
+            else if (arg.startsWith("--metrics=")) o.metricsCsv = Paths.get(value(arg));
+            else if (arg.startsWith("--waves=")) o.spawner = SpawnDirector.load(value(arg));
+            else if (arg.equals("--autopilot")) o.autopilot = true;
+            else if (arg.equals("--god")) o.invulnerable = true;
+            else if (arg.equals("--discrete")) o.discreteCollision = true;
+            else if (arg.startsWith("--threads=")) o.threads = Integer.parseInt(value(arg));
+            else if (arg.equals("--sim-thread")) o.simulationThread = true;
+            else if (arg.startsWith("--keys=")) o.keyBindings = Paths.get(value(arg));
+            else if (arg.startsWith("--trail=")) o.trailSteps = Math.max(1, Integer.parseInt(value(arg)));
+            else if (arg.startsWith("--quality=")) {
+                o.quality = value(arg).equalsIgnoreCase("auto") ? null : QualityGovernor.Level.parse(value(arg));
+            }
+            else if (arg.equals("--server")) o.serverPort = NetServer.DEFAULT_PORT;
+            else if (arg.startsWith("--server=")) o.serverPort = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--players=")) o.players = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--connect=")) o.connect = value(arg);
+            else if (arg.startsWith("--netsim=")) {
+                String[] parts = value(arg).split(",");
+                o.netConditions = new NetConditions(Integer.parseInt(parts[0]),
+                        parts.length > 1 ? Integer.parseInt(parts[1]) : 0,
+                        parts.length > 2 ? Double.parseDouble(parts[2]) : 0);
+            }
+            else if (arg.equals("--stress")) {
+                o.spawner = SpawnDirector.load("stress");
+                o.autopilot = true;
+                o.invulnerable = true;
+            }
+            else System.err.println("Ignoring unknown option: " + arg);
+        }
+
+        private static String value(String arg) {
+            return arg.substring(arg.indexOf('=') + 1);
+        }
+    }
+
+    private final GameWorld world;
+    private final Replay recording;
+    private Runnable stopFrontEnd = () -> {};
+
+    public SpaceGame(Options options, Assets assets) {
         setTitle("Space Game");
         setSize(500, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
 
-        GamePanel panel = new GamePanel();
-        add(panel);
-        setVisible(true);
+        InputManager input = new InputManager();
+        if (options.keyBindings != null) {
+            try {
+                input.loadBindings(options.keyBindings);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error loading key bindings, using defaults: " + e.getMessage());
+            }
+        }
+        if (options.connect != null) {
+            world = null;
+            recording = null;
+            joinServer(options, input, assets);
+            return;
+        }
+
+        world = new GameWorld(options.seed, options.starCount);
+        world.setSpawnDirector(options.spawner);
+        world.setInvulnerable(options.invulnerable);
+        world.setSweptCollision(!options.discreteCollision);
+        world.setParallelism(options.threads);
+        world.setDashTrail(options.trailSteps, DashTrail.fadeTicksFor(options.trailSteps));
+        world.setListener(new GameWorld.Listener() {
+            @Override
+            public void onFire() { play(SoundPlayer.Sound.FIRE); }
+
+            @Override
+            public void onPop() { play(SoundPlayer.Sound.POP); }
+
+            private void play(SoundPlayer.Sound sound) {
+                SoundPlayer sounds = assets.getSounds();
+                if (sounds != null) sounds.play(sound);
+            }
+        });
+        Metrics metrics = new Metrics();
+        world.setMetrics(metrics);
+        metrics.registerMBean();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> saveMetrics(metrics, options.metricsCsv)));
+
+        // Keys are still drained while the loading screen is up, but nothing reaches the world until
+        // the assets are in, so the game can't be started blind
+        InputSource player = options.autopilot ? new Autopilot(world) : input;
+        InputSource source = new InputSource() {
+            @Override
+            public int poll() {
+                int mask = player.poll();
+                return assets.isDone() ? mask : 0;
+            }
+
+            @Override
+            public long pollEventNanos() { return player.pollEventNanos(); }
+        };
+        Simulation simulation = new Simulation(world, source);
+        GameRenderer renderer = new GameRenderer(assets);
+        renderer.setMetrics(metrics);
+
+        recording = (options.recordTo != null) ? Replay.startFor(world) : null;
+        if (recording != null) {
+            simulation.record(recording);
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    saveRecording(options.recordTo);
+                }
+            });
+        }
+
+        showFrontEnd(simulation, input, renderer, options);
+
+        // Front ends have subscribed to snapshots by now, so the first tick is already published
+        if (options.simulationThread) {
+            simulation.startThread();
+            Runnable stopRendering = stopFrontEnd;
+            stopFrontEnd = () -> {
+                stopRendering.run();
+                simulation.stopThread();
+            };
+        }
+    }
+
+    private void showFrontEnd(FrameSource source, InputManager input, GameRenderer renderer, Options options) {
+        // The Swing timer repaints about 60 times a second; an uncapped canvas is held to that too
+        int fps = (options.activeRendering && options.targetFps > 0) ? options.targetFps : GameCanvas.DEFAULT_FPS;
+        QualityGovernor governor = new QualityGovernor(source, renderer, fps, options.quality);
+        if (options.activeRendering) {
+            GameCanvas canvas = new GameCanvas(source, input, renderer, options.targetFps);
+            canvas.setQualityGovernor(governor);
+            add(canvas);
+            setVisible(true);
+            canvas.start();
+            stopFrontEnd = canvas::stop;
+        } else {
+            GamePanel panel = new GamePanel(source, input, renderer);
+            panel.setQualityGovernor(governor);
+            add(panel);
+            setVisible(true);
+            stopFrontEnd = panel::stop;
+        }
+    }
+
+    // Co-op client window: the world lives on the server, and this window draws what it sends
+    private void joinServer(Options options, InputManager input, Assets assets) {
+        setTitle("Space Game - " + options.connect);
+        Metrics metrics = new Metrics();
+        NetClient client;
+        try {
+            // As locally, keys only count once the assets are in
+            InputSource source = () -> {
+                int mask = input.poll();
+                return assets.isDone() ? mask : 0;
+            };
+            client = NetClient.connect(options.connect, source, metrics, options.netConditions);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Can't connect to " + options.connect + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        GameRenderer renderer = new GameRenderer(assets);
+        renderer.setMetrics(metrics);
+        showFrontEnd(client, input, renderer, options);
+
+        Runnable stopRendering = stopFrontEnd;
+        stopFrontEnd = () -> {
+            stopRendering.run();
+            try {
+                client.close();
+            } catch (IOException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        };
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                stopFrontEnd.run();
+            }
+        });
+    }
+
+    // Headless co-op server; runs until the process is killed
+    private static void runServer(Options options) throws IOException {
+        GameWorld world = new GameWorld(options.seed, 0);
+        world.setSpawnDirector(options.spawner);
+        world.setInvulnerable(options.invulnerable);
+        world.setSweptCollision(!options.discreteCollision);
+        world.setParallelism(options.threads);
+        NetServer server = new NetServer(world, NetLink.bind(options.serverPort, options.netConditions, options.seed),
+                options.players);
+        System.out.println("Co-op server for " + options.players + " player(s) on port "
+                + server.getLink().getLocalPort() + ", seed " + options.seed);
+        server.run();
+    }
+
+    // Runs on the EDT before EXIT_ON_CLOSE exits; the simulation is stopped first so the
+    // checksum matches the last recorded tick
+    private void saveRecording(Path path) {
+        stopFrontEnd.run();
+        recording.finish(world);
+        try {
+            recording.write(path);
+            System.out.println("Replay saved: " + path + " (" + recording.getTickCount() + " ticks)");
+        } catch (IOException e) {
+            System.err.println("Error saving replay: " + path);
+            e.printStackTrace();
+        }
+    }
+
+    private static void saveMetrics(Metrics metrics, Path path) {
+        try {
+            metrics.writeCsv(path);
+        } catch (IOException e) {
+            System.err.println("Error saving metrics: " + path);
+            e.printStackTrace();
+        }
+    }
+
+    // Headless replay check: no window, no sound, as many ticks per second as the CPU allows
+    private static void verifyReplay(Path path) throws IOException {
+        Replay replay = Replay.read(path);
+        long start = System.nanoTime();
+        boolean matches = replay.verify();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %,d ticks re-simulated in %.3fs (%,.0f ticks/s), %s%n",
+                path, replay.getTickCount(), seconds, replay.getTickCount() / seconds,
+                matches ? "state matches" : "STATE DIVERGED");
+        if (!matches) System.exit(1);
     }
 
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(SpaceGame::new);
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        if (options.replay != null) {
+            verifyReplay(options.replay);
+            return;
+        }
+        if (options.serverPort >= 0) {
+            runServer(options);
+            return;
+        }
+        // Images and sounds load in the background while Swing starts up
+        Assets assets = Assets.load(true);
+        assets.whenDone(() -> assets.printTimings(System.out));
+        SwingUtilities.invokeLater(() -> new SpaceGame(options, assets));
     }
 }
@@ -0,0 +1,217 @@
+package spacegame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+// Decides when, where and what kind of obstacles enter the world, from a list of waves.
+// Each wave lasts a number of ticks and ramps its spawn rate linearly from rate to rateEnd;
+// when the last wave ends it simply keeps going at its final rate.
+// Everything random is drawn from the world's GameRandom, so runs stay reproducible.
+public class SpawnDirector {
+
+    // Where each spawn puts its obstacles across the top edge
+    public enum Pattern {
+        RANDOM, // one obstacle at a random x
+        LINE,   // a row of `group` obstacles spread evenly across the screen
+        BURST,  // `group` obstacles bunched around a random x
+        SWEEP   // one obstacle, each one further right than the last, wrapping around
+    }
+
+    static class Wave {
+        long ticks = 0;                 // 0 = never ends
+        double rate = 0.02, rateEnd = Double.NaN;
+        int speedMin = Obstacle.SPEED, speedMax = Obstacle.SPEED;
+        int sizeMin = Obstacle.WIDTH, sizeMax = Obstacle.WIDTH;
+        Pattern pattern = Pattern.RANDOM;
+        int group = 5;
+
+        // Spawns per tick at a point in the wave; above 1 means several spawns a tick
+        double rateAt(long waveTick) {
+            if (Double.isNaN(rateEnd) || ticks <= 0) return rate;
+            return rate + (rateEnd - rate) * Math.min(1.0, (double) waveTick / ticks);
+        }
+    }
+
+    private final String name;
+    private final Wave[] waves;
+    private int wave = 0;
+    private long waveTick = 0;
+    private int sweepX = 0;
+
+    SpawnDirector(String name, Wave... waves) {
+        if (waves.length == 0) throw new IllegalArgumentException(name + ": no waves");
+        this.name = name;
+        this.waves = waves;
+    }
+
+    // The original game: a 2% chance each tick of one default obstacle at a random x
+    public static SpawnDirector classic() {
+        return new SpawnDirector("classic", new Wave());
+    }
+
+    // A file path if one exists, otherwise a config bundled under /Waves (e.g. "stress")
+    public static SpawnDirector load(String nameOrPath) throws IOException {
+        Path path = Paths.get(nameOrPath);
+        Properties props = new Properties();
+        if (Files.isRegularFile(path)) {
+            try (Reader in = Files.newBufferedReader(path)) {
+                props.load(in);
+            }
+        } else {
+            String resource = "/Waves/" + nameOrPath + ".properties";
+            try (InputStream in = SpawnDirector.class.getResourceAsStream(resource)) {
+                if (in == null) throw new IOException("No wave config file or bundled config named " + nameOrPath);
+                props.load(in);
+            }
+        }
+        return fromProperties(nameOrPath, props);
+    }
+
+    // Keys (see Waves/stress.properties for a commented example):
+    //   waves=N, then for each wave i in 1..N
+    //   wave.i.ticks, wave.i.rate, wave.i.rateEnd, wave.i.speed, wave.i.size, wave.i.pattern, wave.i.group
+    // speed and size take a single value or a min-max range
+    static SpawnDirector fromProperties(String name, Properties props) {
+        int count = parseInt(name, props, "waves", "1");
+        Wave[] waves = new Wave[count];
+        for (int i = 0; i < count; i++) {
+            String prefix = "wave." + (i + 1) + ".";
+            Wave w = new Wave();
+            w.ticks = parseInt(name, props, prefix + "ticks", "0");
+            w.rate = parseDouble(name, props, prefix + "rate", "0.02");
+            w.rateEnd = parseDouble(name, props, prefix + "rateEnd", Double.toString(w.rate));
+            int[] speed = parseRange(name, props, prefix + "speed", Integer.toString(Obstacle.SPEED));
+            w.speedMin = speed[0];
+            w.speedMax = speed[1];
+            int[] size = parseRange(name, props, prefix + "size", Integer.toString(Obstacle.WIDTH));
+            w.sizeMin = size[0];
+            w.sizeMax = size[1];
+            w.group = parseInt(name, props, prefix + "group", "5");
+            String pattern = props.getProperty(prefix + "pattern", "random").trim();
+            try {
+                w.pattern = Pattern.valueOf(pattern.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(name + ": unknown pattern '" + pattern + "' for " + prefix + "pattern");
+            }
+            if (w.rate < 0 || w.rateEnd < 0 || w.speedMin < 1 || w.sizeMin < 1 || w.group < 1
+                    || w.sizeMax >= GamePanel.WIDTH) {
+                throw new IllegalArgumentException(name + ": out-of-range values in wave " + (i + 1));
+            }
+            waves[i] = w;
+        }
+        return new SpawnDirector(name, waves);
+    }
+
+    // Start again from the first wave, e.g. when a new game begins
+    public void reset() {
+        wave = 0;
+        waveTick = 0;
+        sweepX = 0;
+    }
+
+    // Called once per tick; spawns this tick's share of obstacles into the world
+    public void update(GameWorld world, GameRandom random) {
+        Wave w = waves[wave];
+        double rate = w.rateAt(waveTick);
+        int spawns = (int) rate;
+        if (random.nextDouble() < rate - spawns) spawns++;
+        for (int i = 0; i < spawns; i++) {
+            spawn(world, random, w);
+        }
+
+        waveTick++;
+        if (w.ticks > 0 && waveTick >= w.ticks && wave < waves.length - 1) {
+            wave++;
+            waveTick = 0;
+        }
+    }
+
+    private void spawn(GameWorld world, GameRandom random, Wave w) {
+        int size = between(random, w.sizeMin, w.sizeMax);
+        int range = GamePanel.WIDTH - size;
+        switch (w.pattern) {
+            case RANDOM:
+                world.spawnObstacle(random.nextInt(range), 0, between(random, w.speedMin, w.speedMax), size);
+                break;
+            case LINE: {
+                // Same speed for the whole row so it stays a row
+                int speed = between(random, w.speedMin, w.speedMax);
+                int offset = random.nextInt(range);
+                int spacing = Math.max(1, range / w.group);
+                for (int k = 0; k < w.group; k++) {
+                    world.spawnObstacle((offset + k * spacing) % range, 0, speed, size);
+                }
+                break;
+            }
+            case BURST: {
+                int center = random.nextInt(range);
+                int spread = Math.max(1, size * 2);
+                for (int k = 0; k < w.group; k++) {
+                    int x = Math.max(0, Math.min(range - 1, center + random.nextInt(spread * 2) - spread));
+                    world.spawnObstacle(x, 0, between(random, w.speedMin, w.speedMax), size);
+                }
+                break;
+            }
+            case SWEEP:
+                sweepX = (sweepX + size) % range;
+                world.spawnObstacle(sweepX, 0, between(random, w.speedMin, w.speedMax), size);
+                break;
+        }
+    }
+
+    // Fixed values draw nothing from the generator, so the classic wave replays the original RNG sequence
+    private static int between(GameRandom random, int min, int max) {
+        return (min >= max) ? min : min + random.nextInt(max - min + 1);
+    }
+
+    public String getName() { return name; }
+    public int getWave() { return wave; }
+    public int getWaveCount() { return waves.length; }
+
+    // Current spawn rate, in spawns per tick
+    public double getRate() {
+        return waves[wave].rateAt(waveTick);
+    }
+
+    private static String get(Properties props, String key, String fallback) {
+        return props.getProperty(key, fallback).trim();
+    }
+
+    private static int parseInt(String name, Properties props, String key, String fallback) {
+        try {
+            return Integer.parseInt(get(props, key, fallback));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + ": " + key + " is not a whole number");
+        }
+    }
+
+    private static double parseDouble(String name, Properties props, String key, String fallback) {
+        try {
+            return Double.parseDouble(get(props, key, fallback));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + ": " + key + " is not a number");
+        }
+    }
+
+    // "7" or "4-12"
+    private static int[] parseRange(String name, Properties props, String key, String fallback) {
+        String value = get(props, key, fallback);
+        int dash = value.indexOf('-');
+        try {
+            if (dash < 0) {
+                int v = Integer.parseInt(value);
+                return new int[] { v, v };
+            }
+            int min = Integer.parseInt(value.substring(0, dash).trim());
+            int max = Integer.parseInt(value.substring(dash + 1).trim());
+            return new int[] { Math.min(min, max), Math.max(min, max) };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + ": " + key + " should be a number or a min-max range");
+        }
+    }
+}
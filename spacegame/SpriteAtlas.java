@@ -0,0 +1,64 @@
+package spacegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Sprite frames sliced out of a sheet and pre-scaled once to their on-screen size,
+// stored in the screen's native image format so drawing one is a plain 1:1 blit.
+public class SpriteAtlas {
+
+    private final BufferedImage[] frames;
+
+    // Slice frameCount square cells of cellSize pixels (row-major) and scale each to width x height
+    public SpriteAtlas(BufferedImage sheet, int cellSize, int frameCount, int width, int height) {
+        frames = new BufferedImage[frameCount];
+        int perRow = sheet.getWidth() / cellSize;
+        for (int i = 0; i < frameCount; i++) {
+            int sx = (i % perRow) * cellSize;
+            int sy = (i / perRow) * cellSize;
+            BufferedImage frame = createCompatibleImage(width, height);
+            Graphics2D g = frame.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(sheet, 0, 0, width, height, sx, sy, sx + cellSize, sy + cellSize, null);
+            g.dispose();
+            frames[i] = frame;
+        }
+    }
+
+    // The obstacle sheet: 64px cells, one frame per Obstacle variant, scaled to obstacle size
+    public static SpriteAtlas forObstacles(BufferedImage sheet) {
+        return new SpriteAtlas(sheet, 64, Obstacle.FRAME_COUNT, Obstacle.WIDTH, Obstacle.HEIGHT);
+    }
+
+    // Image in the default screen's pixel layout, or plain ARGB when there is no screen
+    public static BufferedImage createCompatibleImage(int width, int height) {
+        return createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, transparency);
+    }
+
+    public void draw(Graphics g, int frame, int x, int y) {
+        g.drawImage(frames[frame % frames.length], x, y, null);
+    }
+
+    // Frames drawn at another size are scaled on the fly, so keep those to the odd wave that asks for it
+    public void draw(Graphics g, int frame, int x, int y, int width, int height) {
+        BufferedImage image = frames[frame % frames.length];
+        if (width == image.getWidth() && height == image.getHeight()) {
+            g.drawImage(image, x, y, null);
+        } else {
+            g.drawImage(image, x, y, width, height, null);
+        }
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+}
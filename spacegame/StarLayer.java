@@ -0,0 +1,58 @@
+package spacegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+// Opaque background image the stars are written into pixel by pixel. The image is only
+// re-rendered when it is handed a star version it has not drawn yet.
+public class StarLayer {
+
+    private static final int STAR_SIZE = 2;
+
+    // Grey level as an RGB pixel, indexed by brightness - MIN_BRIGHTNESS
+    private static final int[] PALETTE = new int[Starfield.MAX_BRIGHTNESS - Starfield.MIN_BRIGHTNESS + 1];
+    static {
+        for (int i = 0; i < PALETTE.length; i++) {
+            int v = Starfield.MIN_BRIGHTNESS + i;
+            PALETTE[i] = (v << 16) | (v << 8) | v;
+        }
+    }
+
+    private final int width, height;
+    private final BufferedImage layer;
+    private final int[] layerPixels;
+    private long renderedVersion = -1;
+    private int renderedCount = -1;
+
+    public StarLayer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        layerPixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+    }
+
+    // Paint the black sky and the first count stars over the whole field
+    public void draw(Graphics g, int[] x, int[] y, int[] brightness, int count, long version) {
+        if (renderedVersion != version || renderedCount != count) {
+            render(x, y, brightness, count);
+            renderedVersion = version;
+            renderedCount = count;
+        }
+        g.drawImage(layer, 0, 0, null);
+    }
+
+    private void render(int[] x, int[] y, int[] brightness, int count) {
+        Arrays.fill(layerPixels, 0);
+        for (int i = 0; i < count; i++) {
+            int color = PALETTE[brightness[i] - Starfield.MIN_BRIGHTNESS];
+            int x1 = Math.min(x[i] + STAR_SIZE, width);
+            int y1 = Math.min(y[i] + STAR_SIZE, height);
+            for (int row = y[i]; row < y1; row++) {
+                int base = row * width;
+                for (int col = x[i]; col < x1; col++) layerPixels[base + col] = color;
+            }
+        }
+    }
+}
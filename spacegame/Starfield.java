@@ -0,0 +1,80 @@
+package spacegame;
+
+import java.awt.*;
+
+// Twinkling, falling background stars kept in parallel primitive arrays.
+// The simulation moves them each tick; a StarLayer turns them into the background image.
+public class Starfield {
+
+    public static final int DEFAULT_STARS = 200;
+    public static final int DENSE_STARS = 100_000;
+
+    static final int MIN_BRIGHTNESS = 100;
+    static final int MAX_BRIGHTNESS = 255;
+
+    private final int width, height;
+    private final int[] x, y, brightness, delta, speed;
+
+    // Bumped by every update so layers know when their cached image is stale
+    private long version = 0;
+    private StarLayer layer;
+
+    public Starfield(int count, int width, int height, GameRandom random) {
+        this.width = width;
+        this.height = height;
+        x = new int[count];
+        y = new int[count];
+        brightness = new int[count];
+        delta = new int[count];
+        speed = new int[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextInt(width);
+            y[i] = random.nextInt(height);
+            brightness[i] = random.nextInt(MAX_BRIGHTNESS - MIN_BRIGHTNESS + 1) + MIN_BRIGHTNESS; // Brightness between 100–255
+            delta[i] = random.nextBoolean() ? 1 : -1;                     // Twinkle direction
+            speed[i] = random.nextInt(2) + 1;                              // Speed: 1 or 2 pixels/tick
+        }
+    }
+
+    // Update every star's brightness and vertical position
+    public void update() {
+        for (int i = 0; i < x.length; i++) {
+            int b = brightness[i] + delta[i];
+            if (b > MAX_BRIGHTNESS) {
+                b = MAX_BRIGHTNESS;
+                delta[i] = -1;
+            } else if (b < MIN_BRIGHTNESS) {
+                b = MIN_BRIGHTNESS;
+                delta[i] = 1;
+            }
+            brightness[i] = b;
+
+            y[i] += speed[i];
+            if (y[i] > height) {
+                y[i] = 0; // Wrap to top
+            }
+        }
+        version++;
+    }
+
+    // Paint the black sky and all stars over the whole field
+    public void draw(Graphics g) {
+        if (layer == null) layer = new StarLayer(width, height);
+        layer.draw(g, x, y, brightness, x.length, version);
+    }
+
+    // Copy what drawing needs into the given arrays, which must hold getCount() entries
+    public void copyTo(int[] toX, int[] toY, int[] toBrightness) {
+        System.arraycopy(x, 0, toX, 0, x.length);
+        System.arraycopy(y, 0, toY, 0, y.length);
+        System.arraycopy(brightness, 0, toBrightness, 0, brightness.length);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getCount() {
+        return x.length;
+    }
+}
@@ -0,0 +1,67 @@
+package spacegame;
+
+import java.io.IOException;
+
+// Headless stress run: the autopilot plays an invulnerable ship through a wave config that
+// ramps up the obstacle count, and every window of ticks prints how big the world is and
+// where the tick time went. The first window whose p99 tick misses the tick budget marks
+// the scaling cliff.
+// Usage: java -Djava.awt.headless=true spacegame.StressTest [waves-name-or-file] [ticks] [threads]
+public class StressTest {
+
+    private static final int WINDOW_TICKS = 500;
+    private static final long TICK_BUDGET_NANOS = Simulation.TICK_NANOS;
+
+    public static void main(String[] args) throws IOException {
+        String waves = (args.length > 0) ? args[0] : "stress";
+        long ticks = (args.length > 1) ? Long.parseLong(args[1]) : 6_000L;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : 1;
+
+        GameWorld world = new GameWorld(1L);
+        world.setSpawnDirector(SpawnDirector.load(waves));
+        world.setInvulnerable(true);
+        world.setParallelism(threads);
+        Metrics metrics = new Metrics();
+        world.setMetrics(metrics);
+        Simulation simulation = new Simulation(world, new Autopilot(world));
+
+        System.out.printf("%-8s %9s %9s %6s %9s %9s  %s%n",
+                "tick", "obstacles", "particles", "rate", "mean_us", "p99_us", "share: input/stars/obstacles/explosions/spawn/flush");
+        int peakObstacles = 0;
+        int cliffObstacles = -1;
+        long cliffTick = -1;
+        long start = System.nanoTime();
+        for (long t = 1; t <= ticks; t++) {
+            simulation.step();
+            peakObstacles = Math.max(peakObstacles, world.getObstacles().size());
+            if (t % WINDOW_TICKS != 0 && t != ticks) continue;
+
+            Histogram tick = metrics.get(Metrics.Phase.TICK);
+            StringBuilder shares = new StringBuilder();
+            for (Metrics.Phase phase : Metrics.TICK_PHASES) {
+                if (shares.length() > 0) shares.append('/');
+                shares.append(Math.round(100 * metrics.get(phase).getMean() / Math.max(1, tick.getMean())));
+            }
+            System.out.printf("%-8d %9d %9d %6.1f %9.1f %9.1f  %s%n", t, world.getObstacles().size(),
+                    world.getParticles().getLiveCount(), world.getSpawnDirector().getRate(),
+                    tick.getMean() / 1e3, tick.percentile(0.99) / 1e3, shares);
+            if (cliffTick < 0 && tick.percentile(0.99) > TICK_BUDGET_NANOS) {
+                cliffTick = t;
+                cliffObstacles = world.getObstacles().size();
+            }
+            if (t != ticks) metrics.reset();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%n%,d ticks on %d thread(s) in %.2fs, peak %,d obstacles, final checksum %016x%n",
+                ticks, threads, seconds, peakObstacles, world.checksum());
+        System.out.println("Last window:");
+        metrics.printTickBreakdown(System.out);
+        if (cliffTick >= 0) {
+            System.out.printf("p99 tick first exceeded the %d ms budget at tick %,d with %,d obstacles%n",
+                    GameWorld.TICK_MILLIS, cliffTick, cliffObstacles);
+        } else {
+            System.out.printf("p99 tick stayed inside the %d ms budget%n", GameWorld.TICK_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package spacegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// A block of horizontally centred text lines at fixed baselines, rendered once into a single
+// compatible image. Drawing it is one blit; the lines are only laid out and rasterized again
+// when setLines is called, which callers do when what the screen shows has actually changed.
+public class TextScreen {
+
+    // Room for glyphs that reach past their advance or below the descent
+    private static final int PAD = 4;
+
+    private final Font font;
+    private final Color color;
+    private final int[] baselines;
+    private final FontMetrics fm;
+
+    private BufferedImage image;
+    private int imageX, imageY;
+
+    public TextScreen(Font font, Color color, int[] baselines, String... lines) {
+        this.font = font;
+        this.color = color;
+        this.baselines = baselines.clone();
+        this.fm = Fonts.metrics(font);
+        if (lines.length > 0) setLines(lines);
+    }
+
+    // One string per baseline given to the constructor
+    public void setLines(String... lines) {
+        if (lines.length != baselines.length) {
+            throw new IllegalArgumentException("Expected " + baselines.length + " lines, got " + lines.length);
+        }
+        // Bounding box of the whole block, so the image is no bigger than the text in it
+        int width = 1, top = Integer.MAX_VALUE, bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < lines.length; i++) {
+            width = Math.max(width, fm.stringWidth(lines[i]));
+            top = Math.min(top, baselines[i] - fm.getAscent());
+            bottom = Math.max(bottom, baselines[i] + fm.getDescent());
+        }
+        width += 2 * PAD;
+        int height = bottom - top + 2 * PAD;
+        imageX = (GamePanel.WIDTH - width) / 2;
+        imageY = top - PAD;
+        // Text is drawn unantialiased, so every pixel is fully on or off and a bitmask image loses nothing
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = SpriteAtlas.createCompatibleImage(width, height, Transparency.BITMASK);
+        }
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setFont(font);
+        g.setColor(color);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], (GamePanel.WIDTH - fm.stringWidth(lines[i])) / 2 - imageX, baselines[i] - imageY);
+        }
+        g.dispose();
+    }
+
+    public void draw(Graphics g) {
+        g.drawImage(image, imageX, imageY, null);
+    }
+}